@@ -0,0 +1,155 @@
+//
+//  ActionMetrics.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Per-action bridge call statistics: call and error counters, histograms of raw argument and encoded result length,
+ * histogram of time spent on the bridge thread and histogram of time until the first result was sent back to JS.
+ * Recording is lock-free and allocation-free once the action entry exists.
+ */
+public class ActionMetrics {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Histogram with power-of-two bucket boundaries: bucket 0 counts zero values,
+     * bucket i counts values in [2^(i-1), 2^i), the last bucket counts everything above.
+     */
+    static class Histogram {
+        private static final int BUCKETS = 16;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            int bucket = value == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+            buckets.incrementAndGet(bucket);
+            sum.addAndGet(value);
+            long currentMax;
+            do {
+                currentMax = max.get();
+            } while (value > currentMax && !max.compareAndSet(currentMax, value));
+        }
+
+        JSONObject toJSON() throws JSONException {
+            JSONArray counts = new JSONArray();
+            JSONArray upperBounds = new JSONArray();
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucketCount = buckets.get(i);
+                count += bucketCount;
+                counts.put(bucketCount);
+                upperBounds.put(i == BUCKETS - 1 ? -1 : (1L << i) - 1);
+            }
+            JSONObject json = new JSONObject();
+            json.put("count", count);
+            json.put("sum", sum.get());
+            json.put("max", max.get());
+            json.put("upperBounds", upperBounds);
+            json.put("buckets", counts);
+            return json;
+        }
+    }
+
+    static class Entry {
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final Histogram argumentLength = new Histogram();
+        final Histogram resultLength = new Histogram();
+        final Histogram dispatchMillis = new Histogram();
+        final Histogram resultMillis = new Histogram();
+
+        JSONObject toJSON() throws JSONException {
+            JSONObject json = new JSONObject();
+            json.put("calls", calls.get());
+            json.put("errors", errors.get());
+            json.put("argumentLength", argumentLength.toJSON());
+            json.put("resultLength", resultLength.toJSON());
+            json.put("dispatchMillis", dispatchMillis.toJSON());
+            json.put("resultMillis", resultMillis.toJSON());
+            return json;
+        }
+    }
+
+    @NonNull
+    Entry entry(@NonNull String action) {
+        Entry entry = entries.get(action);
+        if (entry == null) {
+            Entry created = new Entry();
+            entry = entries.putIfAbsent(action, created);
+            if (entry == null) {
+                entry = created;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Records a call of the action with the given length of raw JSON arguments,
+     * negative length means that arguments were provided already parsed and their length is unknown.
+     */
+    void recordCall(@NonNull String action, int argumentLength) {
+        Entry entry = entry(action);
+        entry.calls.incrementAndGet();
+        if (argumentLength >= 0) {
+            entry.argumentLength.record(argumentLength);
+        }
+    }
+
+    void recordDispatch(@NonNull String action, long millis) {
+        entry(action).dispatchMillis.record(millis);
+    }
+
+    void recordResult(@NonNull String action, long millis, boolean error) {
+        Entry entry = entry(action);
+        entry.resultMillis.record(millis);
+        if (error) {
+            entry.errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records the length of an encoded result sent back to JS, streamed chunks are recorded one by one.
+     */
+    void recordResultLength(@NonNull String action, int length) {
+        entry(action).resultLength.record(length);
+    }
+
+    void recordError(@NonNull String action) {
+        entry(action).errors.incrementAndGet();
+    }
+
+    void reset() {
+        entries.clear();
+    }
+
+    @NonNull
+    JSONObject toJSON() throws JSONException {
+        JSONObject json = new JSONObject();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            json.put(e.getKey(), e.getValue().toJSON());
+        }
+        return json;
+    }
+}
@@ -0,0 +1,192 @@
+//
+//  BatchCall.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaWebView;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Executes several plugin actions received with a single bridge call and multiplexes their results over the batch callback.
+ * <p>
+ * Entries are dispatched in the order they were provided, each on the thread declared by its action.
+ * Once every entry has its result, results are sent back as one array in entry order:
+ * {@code [{"ok": true, "result": ...}, {"ok": false, "result": {"description": ..., "code": ...}}, ...]}.
+ * Entries of actions without a result are resolved as {@code {"ok": true}} as soon as they are dispatched.
+ * Results which do not belong to the array, such as events of {@link PluginAction.ResultMode#STREAM} actions,
+ * are sent separately as {@code {"index": <entry index>, "ok": true, "result": ...}}.
+ * All messages are sent as JSON strings assembled from already encoded entry results, so nothing is parsed again natively.
+ */
+class BatchCall {
+
+    private static final String TAG = "BatchCall";
+
+    interface Dispatcher {
+        @Nullable
+        PluginAction resolve(@NonNull String action);
+
+        void dispatch(@NonNull PluginAction action, @NonNull JSONArray args, @NonNull CallbackContext callbackContext) throws JSONException;
+    }
+
+    private final CallbackContext callbackContext;
+    private final CordovaWebView webView;
+    private final JSONArray entries;
+    private final String[] results;
+    private int resolvedCount;
+    private boolean dispatched;
+    private boolean completed;
+    private boolean hasStreams;
+
+    BatchCall(@NonNull JSONArray entries, @NonNull CallbackContext callbackContext, CordovaWebView webView) {
+        this.entries = entries;
+        this.callbackContext = callbackContext;
+        this.webView = webView;
+        this.results = new String[entries.length()];
+    }
+
+    void execute(@NonNull Dispatcher dispatcher) {
+        for (int i = 0; i < entries.length(); i++) {
+            JSONObject entry = entries.optJSONObject(i);
+            String actionName = entry != null ? entry.optString("action", null) : null;
+            PluginAction action = actionName != null ? dispatcher.resolve(actionName) : null;
+            if (action == null) {
+                resolve(i, false, error("Unknown action: " + actionName));
+                continue;
+            }
+
+            JSONArray args = entry.optJSONArray("args");
+            if (args == null) {
+                args = new JSONArray();
+            }
+
+            synchronized (this) {
+                hasStreams |= action.resultMode == PluginAction.ResultMode.STREAM;
+            }
+
+            EntryCallbackContext entryCallbackContext = new EntryCallbackContext(i, action.resultMode);
+            try {
+                dispatcher.dispatch(action, args, entryCallbackContext);
+            } catch (Exception e) {
+                CordovaLogger.e(TAG, "Cannot execute " + actionName + ": " + e.getMessage(), e);
+                resolve(i, false, error(e.getMessage()));
+            }
+
+            if (action.resultMode != PluginAction.ResultMode.SINGLE) {
+                resolve(i, true, null);
+            }
+        }
+
+        synchronized (this) {
+            dispatched = true;
+            completeIfReady();
+        }
+    }
+
+    private synchronized void onEntryResult(int index, PluginAction.ResultMode resultMode, PluginResult result) {
+        if (result.getStatus() == PluginResult.Status.NO_RESULT.ordinal()) {
+            return;
+        }
+
+        boolean ok = result.getStatus() == PluginResult.Status.OK.ordinal();
+        boolean streamed = resultMode == PluginAction.ResultMode.STREAM && ok;
+        if (!streamed && results[index] == null) {
+            resolve(index, ok, encode(result));
+            return;
+        }
+
+        send("{\"index\":" + index + ",\"ok\":" + ok + ",\"result\":" + encode(result) + "}", true);
+    }
+
+    private synchronized void resolve(int index, boolean ok, @Nullable String encodedResult) {
+        if (results[index] != null) {
+            return;
+        }
+        results[index] = encodedResult == null
+                ? "{\"ok\":" + ok + "}"
+                : "{\"ok\":" + ok + ",\"result\":" + encodedResult + "}";
+        resolvedCount++;
+        completeIfReady();
+    }
+
+    private void completeIfReady() {
+        if (completed || !dispatched || resolvedCount < results.length) {
+            return;
+        }
+        completed = true;
+
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < results.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(results[i]);
+        }
+        builder.append(']');
+        send(builder.toString(), hasStreams);
+    }
+
+    private void send(String message, boolean keepCallback) {
+        if (callbackContext.isFinished()) {
+            CordovaLogger.w(TAG, "Batch callback is already finished, dropping result");
+            return;
+        }
+        PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, message);
+        pluginResult.setKeepCallback(keepCallback || !completed);
+        callbackContext.sendPluginResult(pluginResult);
+    }
+
+    private static String encode(PluginResult result) {
+        switch (result.getMessageType()) {
+            case PluginResult.MESSAGE_TYPE_ARRAYBUFFER:
+            case PluginResult.MESSAGE_TYPE_BINARYSTRING:
+                return JSONObject.quote(result.getMessage());
+            case PluginResult.MESSAGE_TYPE_MULTIPART:
+                return "null";
+            default:
+                String message = result.getMessage();
+                return message != null ? message : "null";
+        }
+    }
+
+    private static String error(String description) {
+        try {
+            JSONObject json = new JSONObject();
+            json.put("description", description);
+            json.put("code", JSONObject.NULL);
+            return json.toString();
+        } catch (JSONException e) {
+            return "null";
+        }
+    }
+
+    /**
+     * Callback context given to a single batch entry, routes its results into the batch.
+     */
+    private class EntryCallbackContext extends CallbackContext {
+        private final int index;
+        private final PluginAction.ResultMode resultMode;
+
+        EntryCallbackContext(int index, PluginAction.ResultMode resultMode) {
+            super(callbackContext.getCallbackId(), webView);
+            this.index = index;
+            this.resultMode = resultMode;
+        }
+
+        @Override
+        public void sendPluginResult(PluginResult pluginResult) {
+            onEntryResult(index, resultMode, pluginResult);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+//
+//  BinaryPayloadEncoder.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import org.apache.cordova.PluginResult;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Encodes large bridge payloads, which are mostly lists of already serialized messages, into a binary frame
+ * delivered to JS as an ArrayBuffer. Records are copied as UTF-8 bytes, they are neither escaped into
+ * an enclosing JSON string nor parsed as part of one big document, JS decodes them one by one.
+ * <p>
+ * Frame layout, all integers are unsigned 32-bit big-endian:
+ * <pre>
+ *   "MMB1"                         magic and format version
+ *   length, UTF-8 JSON object      header, fields of the result other than the records, empty for a plain array
+ *   length, UTF-8 string           name of the header field the records go to, empty for a plain array
+ *   count                          number of records
+ *   count x (length, UTF-8 JSON)   records
+ * </pre>
+ * The decoder is {@code decodeBinaryPayload} in MobileMessagingCordova.js.
+ * Encoders are reused per thread through {@link PayloadBufferPool}.
+ */
+class BinaryPayloadEncoder implements PayloadBufferPool.Buffer {
+
+    private static final byte[] MAGIC = {'M', 'M', 'B', '1'};
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    private static final PayloadBufferPool<BinaryPayloadEncoder> encoders = new PayloadBufferPool<>(
+            new PayloadBufferPool.Factory<BinaryPayloadEncoder>() {
+                @NonNull
+                @Override
+                public BinaryPayloadEncoder create() {
+                    return new BinaryPayloadEncoder();
+                }
+            });
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int length;
+    private int countPosition = -1;
+    private int count;
+
+    private BinaryPayloadEncoder() {
+    }
+
+    /**
+     * Returns the encoder of the current thread with an empty buffer.
+     */
+    @NonNull
+    static BinaryPayloadEncoder obtain() {
+        return encoders.obtain();
+    }
+
+    @Override
+    public int capacity() {
+        return buffer.length;
+    }
+
+    @Override
+    public void reset(boolean release) {
+        if (release) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+        length = 0;
+        countPosition = -1;
+        count = 0;
+    }
+
+    /**
+     * Starts a frame which decodes to a plain array of records.
+     */
+    BinaryPayloadEncoder beginArray() {
+        return begin(null, null);
+    }
+
+    /**
+     * Starts a frame which decodes to the header object with records in an array under the given field.
+     *
+     * @param header JSON object with the other fields of the result, null for none
+     */
+    BinaryPayloadEncoder begin(@Nullable String header, @Nullable String recordsField) {
+        if (countPosition >= 0) {
+            throw new IllegalStateException("Frame already started");
+        }
+        append(MAGIC, MAGIC.length);
+        writeString(header != null ? header : "");
+        writeString(recordsField != null ? recordsField : "");
+        countPosition = length;
+        writeInt(0);
+        return this;
+    }
+
+    /**
+     * Adds a record which is already valid JSON text.
+     */
+    BinaryPayloadEncoder record(@NonNull String json) {
+        if (countPosition < 0) {
+            throw new IllegalStateException("Frame not started");
+        }
+        writeString(json);
+        count++;
+        return this;
+    }
+
+    int length() {
+        return length;
+    }
+
+    @NonNull
+    PluginResult toPluginResult(@NonNull PluginResult.Status status) {
+        if (countPosition < 0) {
+            throw new IllegalStateException("Frame not started");
+        }
+        putInt(countPosition, count);
+        return new PluginResult(status, Arrays.copyOf(buffer, length));
+    }
+
+    /**
+     * Writes the UTF-8 encoded string prefixed with its length in bytes.
+     */
+    private void writeString(String value) {
+        int lengthPosition = length;
+        writeInt(0);
+        int start = length;
+        int chars = value.length();
+        ensureCapacity(chars);
+        for (int i = 0; i < chars; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (length == buffer.length) {
+                    ensureCapacity(chars - i);
+                }
+                buffer[length++] = (byte) c;
+                continue;
+            }
+
+            ensureCapacity(4);
+            if (c < 0x800) {
+                buffer[length++] = (byte) (0xC0 | (c >> 6));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[length++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, same replacement as String.getBytes(UTF_8)
+                buffer[length++] = '?';
+            } else {
+                buffer[length++] = (byte) (0xE0 | (c >> 12));
+                buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        putInt(lengthPosition, length - start);
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        putInt(length, value);
+        length += 4;
+    }
+
+    private void putInt(int position, int value) {
+        buffer[position] = (byte) (value >>> 24);
+        buffer[position + 1] = (byte) (value >>> 16);
+        buffer[position + 2] = (byte) (value >>> 8);
+        buffer[position + 3] = (byte) value;
+    }
+
+    private void append(byte[] bytes, int count) {
+        ensureCapacity(count);
+        System.arraycopy(bytes, 0, buffer, length, count);
+        length += count;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additional));
+        }
+    }
+}
@@ -9,48 +9,105 @@
 
 package org.apache.cordova.plugin;
 
-import android.os.Handler;
-import android.os.Looper;
+import android.os.Process;
 import android.util.Log;
 
 import org.infobip.mobile.messaging.logging.Level;
 import org.infobip.mobile.messaging.logging.LogcatWriter;
 import org.infobip.mobile.messaging.logging.Writer;
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 import static org.apache.cordova.plugin.MobileMessagingCordova.EVENT_KEY_ID;
 import static org.apache.cordova.plugin.MobileMessagingCordova.EVENT_PLATFORM_NATIVE_LOGS_SENT;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import org.apache.cordova.CallbackContext;
 import org.apache.cordova.PluginResult;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 /**
  * Custom log writer that proxies Android native SDK logs to Cordova JS console
  * Implements the Writer interface from MobileMessagingLogger
+ * <p>
+ * Log records are appended to a lock-free ring buffer from any thread and sent to JS in batches
+ * from a dedicated background thread, either after a short delay or once enough records are pending.
+ * Records which do not fit into the buffer are dropped and reported with the next batch.
  */
-public class CordovaLogWriter implements Writer {
+public class CordovaLogWriter implements Writer, CordovaLogger.Sink {
 
     private static final String TAG = "CordovaLogWriter";
-    private static final SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss.SSS", Locale.US);
+    private static final int CAPACITY = 1024;
+    private static final int FLUSH_THRESHOLD = 64;
+    private static final long FLUSH_DELAY_MS = 100;
+
+    private static final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull final Runnable runnable) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, "MMCordova-logs");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
 
     private final CallbackContext callbackContext;
-    private final Handler mainHandler;
     private final LogcatWriter logcatWriter;
 
+    private final AtomicReferenceArray<Record> records = new AtomicReferenceArray<>(CAPACITY);
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private static class Record {
+        final long timestamp;
+        final Level level;
+        final String tag;
+        final String message;
+        final Throwable throwable;
+
+        Record(long timestamp, Level level, String tag, String message, Throwable throwable) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.tag = tag;
+            this.message = message;
+            this.throwable = throwable;
+        }
+    }
+
     public CordovaLogWriter(CallbackContext callbackContext) {
         this.callbackContext = callbackContext;
-        this.mainHandler = new Handler(Looper.getMainLooper());
         this.logcatWriter = new LogcatWriter();
     }
 
     /**
      * Called by MobileMessagingLogger for each log entry
-     * Converts log level to prefix and emits event to Cordova
+     * Filters the entry and appends it to the buffer, formatting and sending to Cordova happens on the flush thread
      *
      * @param level     Log level (VERBOSE, DEBUG, INFO, WARN, ERROR)
      * @param tag       Log tag (usually SDK component name)
@@ -64,55 +121,161 @@ public class CordovaLogWriter implements Writer {
             String message,
             @Nullable Throwable throwable
     ) {
-        if (Looper.myLooper() == Looper.getMainLooper()) {
-            sendToCordova(level, tag, message, throwable);
-        }
-        else {
-            mainHandler.post(new Runnable() {
-                @Override
-                public void run() {
-                    sendToCordova(level, tag, message, throwable);
-                }
-            });
+        if (CordovaLogger.getFilter().accept(tag, level)) {
+            append(level, tag, message, throwable);
         }
-
     }
 
     /**
-     * Send log message to Cordova JS console via CallbackContext.
-     * Must be called on main thread.
+     * Appends the entry to the buffer, the entry is expected to be already accepted by the log filter.
      */
-    private void sendToCordova(
-            @Nullable final Level level,
-            @Nullable final String tag,
-            @Nullable final String message,
-            @Nullable final Throwable throwable
+    @Override
+    public void append(
+            Level level,
+            String tag,
+            String message,
+            @Nullable Throwable throwable
     ) {
-        try {
-            if (message == null || message.trim().isEmpty())
+        if (message == null || message.trim().isEmpty())
+            return;
+
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail.get() >= CAPACITY) {
+                dropped.incrementAndGet();
                 return;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+
+        records.lazySet(index(sequence), new Record(System.currentTimeMillis(), level, tag, message, throwable));
+
+        if (sequence - tail.get() + 1 >= FLUSH_THRESHOLD) {
+            requestFlush();
+        } else {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Number of records dropped because the buffer was full, since the last batch was sent.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
 
-            String timestamp = dateFormat.format(new Date());
-            String fullMessage;
-            if (throwable != null) {
-                fullMessage = message + "\n" + Log.getStackTraceString(throwable);
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.schedule(flushRunnable, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(flushRunnable);
+        }
+    }
+
+    /**
+     * Sends all published records to Cordova as a single event.
+     * Must be called on the flush thread only.
+     */
+    private void flush() {
+        flushRequested.set(false);
+        flushScheduled.set(false);
+
+        List<Record> batch = new ArrayList<>();
+        long sequence = tail.get();
+        Record record;
+        while (batch.size() < CAPACITY && (record = records.get(index(sequence))) != null) {
+            records.lazySet(index(sequence), null);
+            sequence++;
+            tail.lazySet(sequence);
+            batch.add(record);
+        }
+
+        long droppedCount = dropped.getAndSet(0);
+        if (batch.isEmpty() && droppedCount == 0) {
+            return;
+        }
+
+        sendToCordova(batch, droppedCount);
+
+        if (head.get() != tail.get()) {
+            // records claimed during the flush are published shortly after
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Send log messages to Cordova JS console via CallbackContext.
+     */
+    private void sendToCordova(@NonNull List<Record> batch, long droppedCount) {
+        try {
+            JSONArray messages = new JSONArray();
+            if (droppedCount > 0) {
+                messages.put(formatTimestamp(System.currentTimeMillis()) + " [" + TAG + "]: " + droppedCount + " log records dropped");
             }
-            else {
-                fullMessage = message;
+            for (Record record : batch) {
+                messages.put(format(record));
             }
-            String tagLog = (tag == null || tag.trim().isEmpty()) ? "" : " [" + tag + "]";
-            final String logcatStyleMessage = timestamp + tagLog + ": " + fullMessage;
 
             JSONObject payload = new JSONObject();
             payload.putOpt(EVENT_KEY_ID, EVENT_PLATFORM_NATIVE_LOGS_SENT);
-            payload.put("message", logcatStyleMessage);
+            payload.put("messages", messages);
+            payload.put("dropped", droppedCount);
 
             PluginResult requestResult = new PluginResult(PluginResult.Status.OK, payload);
             requestResult.setKeepCallback(true);
             callbackContext.sendPluginResult(requestResult);
         } catch (Exception e) {
-            // Fallback to Logcat if message cannot be logged by Cordova JS console
-            logcatWriter.write(level, tag, message, throwable);
+            // Fallback to Logcat if messages cannot be logged by Cordova JS console
+            for (Record record : batch) {
+                logcatWriter.write(record.level, record.tag, record.message, record.throwable);
+            }
+        }
+    }
+
+    private static String format(Record record) {
+        String fullMessage;
+        if (record.throwable != null) {
+            fullMessage = record.message + "\n" + Log.getStackTraceString(record.throwable);
+        }
+        else {
+            fullMessage = record.message;
         }
+        String tagLog = (record.tag == null || record.tag.trim().isEmpty()) ? "" : " [" + record.tag + "]";
+        return formatTimestamp(record.timestamp) + tagLog + ": " + fullMessage;
+    }
+
+    /**
+     * Formats local time of day as HH:mm:ss.SSS without shared formatter state.
+     */
+    static String formatTimestamp(long timeMillis) {
+        long local = timeMillis + TimeZone.getDefault().getOffset(timeMillis);
+        long millisOfDay = ((local % 86400000L) + 86400000L) % 86400000L;
+        int hours = (int) (millisOfDay / 3600000L);
+        int minutes = (int) (millisOfDay / 60000L % 60);
+        int seconds = (int) (millisOfDay / 1000L % 60);
+        int millis = (int) (millisOfDay % 1000L);
+
+        char[] chars = new char[12];
+        chars[0] = (char) ('0' + hours / 10);
+        chars[1] = (char) ('0' + hours % 10);
+        chars[2] = ':';
+        chars[3] = (char) ('0' + minutes / 10);
+        chars[4] = (char) ('0' + minutes % 10);
+        chars[5] = ':';
+        chars[6] = (char) ('0' + seconds / 10);
+        chars[7] = (char) ('0' + seconds % 10);
+        chars[8] = '.';
+        chars[9] = (char) ('0' + millis / 100);
+        chars[10] = (char) ('0' + millis / 10 % 10);
+        chars[11] = (char) ('0' + millis % 10);
+        return new String(chars);
+    }
+
+    private static int index(long sequence) {
+        return (int) (sequence % CAPACITY);
     }
 }
@@ -12,16 +12,33 @@ import android.util.Log;
 
 import org.infobip.mobile.messaging.logging.Level;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 /**
  * Centralized logging utility for Cordova plugin code.
- * Routes logs to Cordova JS console via CordovaLogWriter when enabled.
+ * Routes logs to Cordova JS console via CordovaLogWriter or to log files via FileLogWriter when enabled.
  */
 public class CordovaLogger {
 
+    /**
+     * Destination of plugin logs which were already accepted by the log filter.
+     */
+    interface Sink {
+        void append(Level level, String tag, String message, @Nullable Throwable throwable);
+    }
+
     @Nullable
-    private static volatile CordovaLogWriter writer;
+    private static volatile Sink writer;
+    @NonNull
+    private static volatile LogFilter filter = LogFilter.ALLOW_ALL;
+
+    /**
+     * Builds a log message only when it is going to be emitted.
+     */
+    public interface MessageSupplier {
+        String get();
+    }
 
     private CordovaLogger() {
     }
@@ -35,12 +52,59 @@ public class CordovaLogger {
     }
 
     /**
-     * Disable Cordova JS console logging, revert to native Logcat.
+     * Enable logging into rotating files with the provided writer.
+     */
+    public static void useFile(FileLogWriter writer) {
+        CordovaLogger.writer = writer;
+    }
+
+    /**
+     * Disable Cordova JS console or file logging, revert to native Logcat.
      */
     public static void useNativeLogcat() {
         CordovaLogger.writer = null;
     }
 
+    static boolean isUsingCordovaConsole() {
+        return writer instanceof CordovaLogWriter;
+    }
+
+    @Nullable
+    static FileLogWriter getFileWriter() {
+        Sink sink = writer;
+        return sink instanceof FileLogWriter ? (FileLogWriter) sink : null;
+    }
+
+    /**
+     * Sets level, tag and rate limit filter applied to logs forwarded to Cordova JS console or written to files.
+     */
+    static void setFilter(@NonNull LogFilter filter) {
+        CordovaLogger.filter = filter;
+    }
+
+    @NonNull
+    static LogFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Checks whether a message of the given level would be emitted,
+     * so callers can skip building expensive messages.
+     */
+    public static boolean isLoggable(String tag, Level level) {
+        if (writer != null) {
+            return filter.isLoggable(tag, level);
+        }
+        switch (level) {
+            case VERBOSE:
+                return Log.isLoggable(tag, Log.VERBOSE);
+            case DEBUG:
+                return Log.isLoggable(tag, Log.DEBUG);
+            default:
+                return true;
+        }
+    }
+
     /**
      * Log a VERBOSE message.
      */
@@ -52,13 +116,25 @@ public class CordovaLogger {
      * Log a VERBOSE message with throwable.
      */
     public static void v(String tag, String message, @Nullable Throwable throwable) {
-        if (writer != null) {
-            writer.write(Level.VERBOSE, tag, message, throwable);
+        Sink cordovaWriter = writer;
+        if (cordovaWriter != null) {
+            if (filter.accept(tag, Level.VERBOSE)) {
+                cordovaWriter.append(Level.VERBOSE, tag, message, throwable);
+            }
         } else {
             Log.v(tag, message, throwable);
         }
     }
 
+    /**
+     * Log a VERBOSE message built by the supplier only if it is going to be emitted.
+     */
+    public static void v(String tag, MessageSupplier message) {
+        if (isLoggable(tag, Level.VERBOSE)) {
+            v(tag, message.get(), null);
+        }
+    }
+
     /**
      * Log a DEBUG message.
      */
@@ -70,13 +146,25 @@ public class CordovaLogger {
      * Log a DEBUG message with throwable.
      */
     public static void d(String tag, String message, @Nullable Throwable throwable) {
-        if (writer != null) {
-            writer.write(Level.DEBUG, tag, message, throwable);
+        Sink cordovaWriter = writer;
+        if (cordovaWriter != null) {
+            if (filter.accept(tag, Level.DEBUG)) {
+                cordovaWriter.append(Level.DEBUG, tag, message, throwable);
+            }
         } else {
             Log.d(tag, message, throwable);
         }
     }
 
+    /**
+     * Log a DEBUG message built by the supplier only if it is going to be emitted.
+     */
+    public static void d(String tag, MessageSupplier message) {
+        if (isLoggable(tag, Level.DEBUG)) {
+            d(tag, message.get(), null);
+        }
+    }
+
     /**
      * Log an INFO message.
      */
@@ -88,13 +176,25 @@ public class CordovaLogger {
      * Log an INFO message with throwable.
      */
     public static void i(String tag, String message, @Nullable Throwable throwable) {
-        if (writer != null) {
-            writer.write(Level.INFO, tag, message, throwable);
+        Sink cordovaWriter = writer;
+        if (cordovaWriter != null) {
+            if (filter.accept(tag, Level.INFO)) {
+                cordovaWriter.append(Level.INFO, tag, message, throwable);
+            }
         } else {
             Log.i(tag, message, throwable);
         }
     }
 
+    /**
+     * Log an INFO message built by the supplier only if it is going to be emitted.
+     */
+    public static void i(String tag, MessageSupplier message) {
+        if (isLoggable(tag, Level.INFO)) {
+            i(tag, message.get(), null);
+        }
+    }
+
     /**
      * Log a WARN message.
      */
@@ -106,13 +206,25 @@ public class CordovaLogger {
      * Log a WARN message with throwable.
      */
     public static void w(String tag, String message, @Nullable Throwable throwable) {
-        if (writer != null) {
-            writer.write(Level.WARN, tag, message, throwable);
+        Sink cordovaWriter = writer;
+        if (cordovaWriter != null) {
+            if (filter.accept(tag, Level.WARN)) {
+                cordovaWriter.append(Level.WARN, tag, message, throwable);
+            }
         } else {
             Log.w(tag, message, throwable);
         }
     }
 
+    /**
+     * Log a WARN message built by the supplier only if it is going to be emitted.
+     */
+    public static void w(String tag, MessageSupplier message) {
+        if (isLoggable(tag, Level.WARN)) {
+            w(tag, message.get(), null);
+        }
+    }
+
     /**
      * Log an ERROR message.
      */
@@ -124,10 +236,22 @@ public class CordovaLogger {
      * Log an ERROR message with throwable.
      */
     public static void e(String tag, String message, @Nullable Throwable throwable) {
-        if (writer != null) {
-            writer.write(Level.ERROR, tag, message, throwable);
+        Sink cordovaWriter = writer;
+        if (cordovaWriter != null) {
+            if (filter.accept(tag, Level.ERROR)) {
+                cordovaWriter.append(Level.ERROR, tag, message, throwable);
+            }
         } else {
             Log.e(tag, message, throwable);
         }
     }
+
+    /**
+     * Log an ERROR message built by the supplier only if it is going to be emitted.
+     */
+    public static void e(String tag, MessageSupplier message) {
+        if (isLoggable(tag, Level.ERROR)) {
+            e(tag, message.get(), null);
+        }
+    }
 }
@@ -0,0 +1,544 @@
+//
+//  CordovaMessageStore.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Base64;
+
+import org.infobip.mobile.messaging.Message;
+import org.infobip.mobile.messaging.plugins.MessageJson;
+import org.infobip.mobile.messaging.storage.MessageStore;
+import org.infobip.mobile.messaging.storage.SQLiteMessageStore;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Default message storage of the plugin. Messages are kept in a plugin-owned SQLite table keyed by message id,
+ * together with their JSON representation, so that the plugin can look up, delete, page through, query and search messages
+ * with indexed lookups instead of loading the whole store.
+ * Messages stored by {@link SQLiteMessageStore} in previous plugin versions are moved here when the table is created.
+ */
+public class CordovaMessageStore implements MessageStore {
+
+    private static final String TAG = "CordovaMessageStore";
+    private static final String DATABASE_NAME = "mm_cordova_messages.db";
+    private static final int DATABASE_VERSION = 1;
+
+    static final String TABLE_MESSAGES = "messages";
+    static final String COLUMN_ID = "id";
+    static final String COLUMN_SENT_TIMESTAMP = "sent_timestamp";
+    static final String COLUMN_SEEN_TIMESTAMP = "seen_timestamp";
+    static final String COLUMN_RECEIVED_TIMESTAMP = "received_timestamp";
+    static final String COLUMN_CATEGORY = "category";
+    static final String COLUMN_TITLE = "title";
+    static final String COLUMN_BODY = "body";
+    static final String COLUMN_PAYLOAD = "payload";
+
+    private static final int MAX_IDS_PER_STATEMENT = 500;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final String SQL_DELETE_BY_ID = "DELETE FROM " + TABLE_MESSAGES + " WHERE " + COLUMN_ID + " = ?";
+    private static final String SQL_INSERT = "INSERT INTO " + TABLE_MESSAGES + " ("
+            + COLUMN_ID + ", " + COLUMN_SENT_TIMESTAMP + ", " + COLUMN_SEEN_TIMESTAMP + ", "
+            + COLUMN_CATEGORY + ", " + COLUMN_TITLE + ", " + COLUMN_BODY + ", " + COLUMN_PAYLOAD + ", " + COLUMN_RECEIVED_TIMESTAMP
+            + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static volatile DatabaseHelper databaseHelper;
+
+    @SuppressWarnings("unused")
+    public CordovaMessageStore() {
+    }
+
+    /**
+     * Single page of messages, newest first, with a token to continue from.
+     * Messages are kept as stored JSON text, so they are written to the bridge without being parsed.
+     */
+    public static class Page {
+        @NonNull
+        public final List<String> messages;
+        @Nullable
+        public final String nextToken;
+
+        Page(@NonNull List<String> messages, @Nullable String nextToken) {
+            this.messages = messages;
+            this.nextToken = nextToken;
+        }
+
+        /**
+         * Writes {@code "messages": [...]} into the currently open object.
+         */
+        void writeMessages(@NonNull JsonPayloadWriter writer) {
+            writer.name("messages").beginArray();
+            for (String message : messages) {
+                writer.rawValue(message);
+            }
+            writer.endArray();
+        }
+
+        /**
+         * Adds the messages as records of the frame.
+         */
+        void writeMessages(@NonNull BinaryPayloadEncoder encoder) {
+            for (String message : messages) {
+                encoder.record(message);
+            }
+        }
+    }
+
+    @Override
+    public List<Message> findAll(Context context) {
+        Cursor cursor = database(context).query(TABLE_MESSAGES, new String[]{COLUMN_PAYLOAD},
+                null, null, null, null, COLUMN_SENT_TIMESTAMP + " DESC");
+        try {
+            return MessageJson.resolveMessages(toJSONArray(cursor, 0));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public long countAll(Context context) {
+        return DatabaseUtils.queryNumEntries(database(context), TABLE_MESSAGES);
+    }
+
+    @Override
+    public void save(Context context, Message... messages) {
+        if (messages == null || messages.length == 0) {
+            return;
+        }
+
+        SQLiteDatabase db = database(context);
+        db.beginTransaction();
+        try {
+            insert(context, db, messages);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        MessageStoreCompactor.scheduleIfDue(context);
+    }
+
+    @Override
+    public void deleteAll(Context context) {
+        database(context).delete(TABLE_MESSAGES, null, null);
+    }
+
+    /**
+     * Looks up a single message by its id.
+     *
+     * @return message JSON in the same format as {@link MessageJson#toJSON(Message)} or null if there is no such message
+     */
+    @Nullable
+    public JSONObject find(@NonNull Context context, @NonNull String messageId) throws JSONException {
+        Cursor cursor = database(context).query(TABLE_MESSAGES, new String[]{COLUMN_PAYLOAD},
+                COLUMN_ID + " = ?", new String[]{messageId}, null, null, null);
+        try {
+            return cursor.moveToFirst() ? new JSONObject(cursor.getString(0)) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Writes all stored messages, newest first, as a JSON array of stored message JSON.
+     */
+    void writeAll(@NonNull Context context, @NonNull JsonPayloadWriter writer) {
+        Cursor cursor = database(context).query(TABLE_MESSAGES, new String[]{COLUMN_PAYLOAD},
+                null, null, null, null, COLUMN_SENT_TIMESTAMP + " DESC");
+        try {
+            writer.beginArray();
+            while (cursor.moveToNext()) {
+                writer.rawValue(cursor.getString(0));
+            }
+            writer.endArray();
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Adds all stored messages, newest first, as records of the started frame.
+     */
+    void writeAll(@NonNull Context context, @NonNull BinaryPayloadEncoder encoder) {
+        Cursor cursor = database(context).query(TABLE_MESSAGES, new String[]{COLUMN_PAYLOAD},
+                null, null, null, null, COLUMN_SENT_TIMESTAMP + " DESC");
+        try {
+            while (cursor.moveToNext()) {
+                encoder.record(cursor.getString(0));
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Returns messages ordered by sent timestamp, newest first, starting after the position described by the token.
+     * Pages are read with a keyset query over the (sent timestamp, id) index, so the cost of a page does not depend on its position.
+     *
+     * @param pageSize          maximum number of messages in the page, limited to {@link #MAX_PAGE_SIZE}
+     * @param continuationToken token of the previous page or null for the first page
+     * @throws IllegalArgumentException if the token is not valid
+     */
+    @NonNull
+    public Page findPage(@NonNull Context context, int pageSize, @Nullable String continuationToken) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        String selection = null;
+        String[] selectionArgs = null;
+        if (continuationToken != null) {
+            String[] position = decodeToken(continuationToken);
+            selection = COLUMN_SENT_TIMESTAMP + " < ? OR (" + COLUMN_SENT_TIMESTAMP + " = ? AND " + COLUMN_ID + " < ?)";
+            selectionArgs = new String[]{position[0], position[0], position[1]};
+        }
+
+        Cursor cursor = database(context).query(TABLE_MESSAGES, new String[]{COLUMN_PAYLOAD, COLUMN_SENT_TIMESTAMP, COLUMN_ID},
+                selection, selectionArgs, null, null,
+                COLUMN_SENT_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC", String.valueOf(limit + 1));
+        try {
+            List<String> messages = new ArrayList<>(Math.min(limit, cursor.getCount()));
+            String nextToken = null;
+            long lastSent = 0;
+            String lastId = null;
+            while (cursor.moveToNext()) {
+                if (messages.size() == limit) {
+                    nextToken = encodeToken(lastSent, lastId);
+                    break;
+                }
+                messages.add(cursor.getString(0));
+                lastSent = cursor.getLong(1);
+                lastId = cursor.getString(2);
+            }
+            return new Page(messages, nextToken);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Evaluates the query against stored messages and writes the result as a JSON array.
+     * Whole messages are copied from their stored JSON, which is parsed only to match the custom payload or to project fields.
+     */
+    void query(@NonNull Context context, @NonNull MessageQuery query, @NonNull JsonPayloadWriter writer) throws JSONException {
+        String selection = query.selection.isEmpty() ? null : query.selection;
+        writer.beginArray();
+        if (query.isProjectionFromColumns()) {
+            String[] columns = query.projectionColumns();
+            Cursor cursor = database(context).query(TABLE_MESSAGES, columns, selection, query.selectionArgs,
+                    null, null, query.orderBy, query.offset + ", " + query.limit);
+            try {
+                while (cursor.moveToNext()) {
+                    writeColumns(writer, cursor, query.fields, columns);
+                }
+            } finally {
+                cursor.close();
+            }
+            writer.endArray();
+            return;
+        }
+
+        // custom payload is matched after reading, so offset and limit cannot be left to SQLite
+        String sqlLimit = query.customPayload == null ? query.offset + ", " + query.limit : null;
+        int skip = query.customPayload == null ? 0 : query.offset;
+        boolean parse = query.customPayload != null || query.fields != null;
+        Cursor cursor = database(context).query(TABLE_MESSAGES, new String[]{COLUMN_PAYLOAD}, selection, query.selectionArgs,
+                null, null, query.orderBy, sqlLimit);
+        try {
+            int written = 0;
+            while (written < query.limit && cursor.moveToNext()) {
+                if (!parse) {
+                    writer.rawValue(cursor.getString(0));
+                    written++;
+                    continue;
+                }
+
+                JSONObject message;
+                try {
+                    message = new JSONObject(cursor.getString(0));
+                } catch (JSONException e) {
+                    CordovaLogger.w(TAG, "Cannot parse stored message: " + e.getMessage());
+                    continue;
+                }
+                if (!query.matchesCustomPayload(message)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                writer.rawValue(query.project(message).toString());
+                written++;
+            }
+        } finally {
+            cursor.close();
+        }
+        writer.endArray();
+    }
+
+    /**
+     * Finds messages whose title, body or searchable custom payload values contain all words of the text
+     * and writes them as a JSON array.
+     *
+     * @param fields message fields to write, or null to write only message ids
+     */
+    void search(@NonNull Context context, @NonNull String text, int limit, @Nullable List<String> fields,
+                @NonNull JsonPayloadWriter writer) throws JSONException {
+        SQLiteDatabase db = database(context);
+        List<Long> rowIds = MessageSearchIndex.search(db, text, limit);
+        writer.beginArray();
+        if (rowIds.isEmpty()) {
+            writer.endArray();
+            return;
+        }
+
+        String[] columns = fields == null ? new String[]{"rowid", COLUMN_ID} : new String[]{"rowid", COLUMN_PAYLOAD};
+        String[] args = new String[rowIds.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = String.valueOf(rowIds.get(i));
+        }
+        Map<Long, String> found = new HashMap<>();
+        Cursor cursor = db.query(TABLE_MESSAGES, columns, "rowid IN (" + placeholders(args.length) + ")", args, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                found.put(cursor.getLong(0), cursor.getString(1));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        for (Long rowId : rowIds) {
+            String value = found.get(rowId);
+            if (value == null) {
+                continue;
+            }
+            if (fields == null) {
+                writer.value(value);
+            } else {
+                writer.rawValue(MessageQuery.project(new JSONObject(value), fields).toString());
+            }
+        }
+        writer.endArray();
+    }
+
+    private static void writeColumns(JsonPayloadWriter writer, Cursor cursor, List<String> fields, String[] columns) {
+        writer.beginObject();
+        for (int i = 0; i < fields.size(); i++) {
+            if (cursor.isNull(i)) {
+                continue;
+            }
+            writer.name(fields.get(i));
+            if (COLUMN_SENT_TIMESTAMP.equals(columns[i]) || COLUMN_SEEN_TIMESTAMP.equals(columns[i])
+                    || COLUMN_RECEIVED_TIMESTAMP.equals(columns[i])) {
+                writer.value(cursor.getLong(i));
+            } else {
+                writer.value(cursor.getString(i));
+            }
+        }
+        writer.endObject();
+    }
+
+    static String encodeToken(long sentTimestamp, String messageId) {
+        String position = sentTimestamp + ":" + messageId;
+        return Base64.encodeToString(position.getBytes(UTF_8), Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING);
+    }
+
+    static String[] decodeToken(String token) {
+        try {
+            String position = new String(Base64.decode(token, Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING), UTF_8);
+            int separator = position.indexOf(':');
+            Long.parseLong(position.substring(0, separator));
+            return new String[]{position.substring(0, separator), position.substring(separator + 1)};
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+    }
+
+    /**
+     * Deletes messages with the given ids and messages sent before the given time in a single transaction.
+     *
+     * @param messageIds      ids of messages to delete, may be empty
+     * @param sentBeforeMillis messages sent before this time are deleted, ignored if not positive
+     * @return number of deleted messages
+     */
+    public int delete(@NonNull Context context, @NonNull List<String> messageIds, long sentBeforeMillis) {
+        SQLiteDatabase db = database(context);
+        int deleted = 0;
+        db.beginTransaction();
+        try {
+            for (int from = 0; from < messageIds.size(); from += MAX_IDS_PER_STATEMENT) {
+                List<String> chunk = messageIds.subList(from, Math.min(messageIds.size(), from + MAX_IDS_PER_STATEMENT));
+                deleted += db.delete(TABLE_MESSAGES, COLUMN_ID + " IN (" + placeholders(chunk.size()) + ")",
+                        chunk.toArray(new String[chunk.size()]));
+            }
+            if (sentBeforeMillis > 0) {
+                deleted += db.delete(TABLE_MESSAGES, COLUMN_SENT_TIMESTAMP + " < ?",
+                        new String[]{String.valueOf(sentBeforeMillis)});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return deleted;
+    }
+
+    static String placeholders(int count) {
+        StringBuilder builder = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            builder.append(i == 0 ? "?" : ",?");
+        }
+        return builder.toString();
+    }
+
+    static SQLiteDatabase database(Context context) {
+        DatabaseHelper helper = databaseHelper;
+        if (helper == null) {
+            synchronized (CordovaMessageStore.class) {
+                helper = databaseHelper;
+                if (helper == null) {
+                    helper = new DatabaseHelper(context.getApplicationContext());
+                    databaseHelper = helper;
+                }
+            }
+        }
+        return helper.getWritableDatabase();
+    }
+
+    /**
+     * Reads JSON payloads from the given cursor column into an array without converting them to messages.
+     */
+    static JSONArray toJSONArray(Cursor cursor, int payloadColumn) {
+        JSONArray array = new JSONArray();
+        while (cursor.moveToNext()) {
+            try {
+                array.put(new JSONObject(cursor.getString(payloadColumn)));
+            } catch (JSONException e) {
+                CordovaLogger.w(TAG, "Cannot parse stored message: " + e.getMessage());
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Inserts messages and adds them to the search index. A stored message with the same id is deleted first,
+     * so that the delete trigger also removes it from the search index, which REPLACE conflict resolution would not do.
+     */
+    private static void insert(Context context, SQLiteDatabase db, Message... messages) {
+        Set<String> searchableKeys = MessageSearchIndex.searchableKeys(context);
+        SQLiteStatement delete = db.compileStatement(SQL_DELETE_BY_ID);
+        SQLiteStatement statement = db.compileStatement(SQL_INSERT);
+        SQLiteStatement index = MessageSearchIndex.compileInsert(db);
+        try {
+            for (Message message : messages) {
+                if (message == null || message.getMessageId() == null) {
+                    continue;
+                }
+                delete.bindString(1, message.getMessageId());
+                delete.executeUpdateDelete();
+
+                statement.clearBindings();
+                statement.bindString(1, message.getMessageId());
+                statement.bindLong(2, message.getSentTimestamp());
+                statement.bindLong(3, message.getSeenTimestamp());
+                bindNullable(statement, 4, message.getCategory());
+                bindNullable(statement, 5, message.getTitle());
+                bindNullable(statement, 6, message.getBody());
+                statement.bindString(7, MessageJson.toJSON(message).toString());
+                statement.bindLong(8, message.getReceivedTimestamp());
+                long rowId = statement.executeInsert();
+
+                MessageSearchIndex.index(index, rowId, message.getTitle(), message.getBody(),
+                        MessageSearchIndex.customPayloadText(message.getCustomPayload(), searchableKeys));
+            }
+        } finally {
+            index.close();
+            statement.close();
+            delete.close();
+        }
+    }
+
+    private static void bindNullable(SQLiteStatement statement, int index, @Nullable String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    private static class DatabaseHelper extends SQLiteOpenHelper {
+
+        private final Context context;
+
+        DatabaseHelper(Context context) {
+            super(context, DATABASE_NAME, null, DATABASE_VERSION);
+            this.context = context;
+            setWriteAheadLoggingEnabled(true);
+        }
+
+        @Override
+        public void onConfigure(SQLiteDatabase db) {
+            // takes effect only for a new database, existing ones are switched by the first compaction
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE " + TABLE_MESSAGES + " ("
+                    + COLUMN_ID + " TEXT PRIMARY KEY NOT NULL, "
+                    + COLUMN_SENT_TIMESTAMP + " INTEGER NOT NULL DEFAULT 0, "
+                    + COLUMN_SEEN_TIMESTAMP + " INTEGER NOT NULL DEFAULT 0, "
+                    + COLUMN_CATEGORY + " TEXT, "
+                    + COLUMN_TITLE + " TEXT, "
+                    + COLUMN_BODY + " TEXT, "
+                    + COLUMN_PAYLOAD + " TEXT NOT NULL, "
+                    + COLUMN_RECEIVED_TIMESTAMP + " INTEGER NOT NULL DEFAULT 0)");
+            db.execSQL("CREATE INDEX " + TABLE_MESSAGES + "_" + COLUMN_SENT_TIMESTAMP
+                    + " ON " + TABLE_MESSAGES + " (" + COLUMN_SENT_TIMESTAMP + ", " + COLUMN_ID + ")");
+            db.execSQL("CREATE INDEX " + TABLE_MESSAGES + "_" + COLUMN_RECEIVED_TIMESTAMP
+                    + " ON " + TABLE_MESSAGES + " (" + COLUMN_RECEIVED_TIMESTAMP + ", " + COLUMN_ID + ")");
+            db.execSQL("CREATE INDEX " + TABLE_MESSAGES + "_" + COLUMN_CATEGORY
+                    + " ON " + TABLE_MESSAGES + " (" + COLUMN_CATEGORY + ", " + COLUMN_SENT_TIMESTAMP + ")");
+            db.execSQL("CREATE INDEX " + TABLE_MESSAGES + "_" + COLUMN_SEEN_TIMESTAMP
+                    + " ON " + TABLE_MESSAGES + " (" + COLUMN_SEEN_TIMESTAMP + ", " + COLUMN_SENT_TIMESTAMP + ")");
+            MessageSearchIndex.create(db);
+            migrateFromSQLiteMessageStore(db);
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        }
+
+        private void migrateFromSQLiteMessageStore(SQLiteDatabase db) {
+            try {
+                List<Message> messages = new SQLiteMessageStore().findAll(context);
+                if (messages == null || messages.isEmpty()) {
+                    return;
+                }
+                insert(context, db, messages.toArray(new Message[messages.size()]));
+                CordovaLogger.d(TAG, "Moved " + messages.size() + " messages from the SDK message store");
+            } catch (Exception e) {
+                CordovaLogger.e(TAG, "Cannot move messages from the SDK message store: " + e.getMessage(), e);
+            }
+        }
+    }
+}
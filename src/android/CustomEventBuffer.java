@@ -0,0 +1,202 @@
+//
+//  CustomEventBuffer.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import org.infobip.mobile.messaging.CustomEvent;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Collects custom events submitted from JS and hands them to the SDK in batches, once the buffer is full,
+ * the oldest event reached the maximum age, the app goes to background or a flush is requested.
+ * <p>
+ * Events of definition ids configured as coalesced are submitted once per batch for each distinct set of properties,
+ * it is meant for events where only the occurrence matters and not how many times they happened, e.g. screen views.
+ */
+class CustomEventBuffer {
+
+    private static final String TAG = "CustomEventBuffer";
+    static final int DEFAULT_MAX_BATCH_SIZE = 20;
+    static final int DEFAULT_MAX_DELAY_MILLIS = 1000;
+
+    enum FlushReason {
+        SIZE,
+        AGE,
+        BACKGROUND,
+        EXPLICIT
+    }
+
+    /**
+     * Receives flushed events, called outside of the buffer lock on the thread which triggered the flush.
+     */
+    interface Sink {
+        void submit(@NonNull List<CustomEvent> events);
+    }
+
+    private final Sink sink;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable ageFlush = new Runnable() {
+        @Override
+        public void run() {
+            flush(FlushReason.AGE);
+        }
+    };
+
+    private final Map<String, CustomEvent> events = new LinkedHashMap<>();
+    private Set<String> coalescedDefinitionIds = Collections.emptySet();
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private int maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+    private long firstEventAtElapsedMillis;
+    private long sequence;
+
+    private final AtomicLong buffered = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong submitted = new AtomicLong();
+    private final Map<FlushReason, AtomicLong> flushes = new LinkedHashMap<>();
+    private final ActionMetrics.Histogram batchSize = new ActionMetrics.Histogram();
+    private final ActionMetrics.Histogram flushLatencyMillis = new ActionMetrics.Histogram();
+
+    CustomEventBuffer(@NonNull Sink sink) {
+        this.sink = sink;
+        for (FlushReason reason : FlushReason.values()) {
+            flushes.put(reason, new AtomicLong());
+        }
+    }
+
+    /**
+     * @param batchSize   number of buffered events which triggers a flush, 1 submits every event right away
+     * @param delayMillis maximum time an event stays in the buffer
+     */
+    synchronized void configure(int batchSize, int delayMillis) {
+        this.maxBatchSize = Math.max(1, batchSize);
+        this.maxDelayMillis = Math.max(0, delayMillis);
+    }
+
+    synchronized void setCoalescedDefinitionIds(@Nullable Collection<String> definitionIds) {
+        this.coalescedDefinitionIds = definitionIds != null ? new HashSet<>(definitionIds) : Collections.<String>emptySet();
+    }
+
+    /**
+     * @param json event as received from JS, used to recognize identical events
+     */
+    void add(@NonNull CustomEvent event, @NonNull JSONObject json) {
+        boolean full;
+        synchronized (this) {
+            String definitionId = event.getDefinitionId();
+            String key = definitionId != null && coalescedDefinitionIds.contains(definitionId)
+                    ? definitionId + '\n' + canonical(json.optJSONObject("properties"))
+                    : String.valueOf(sequence++);
+            buffered.incrementAndGet();
+            if (events.containsKey(key)) {
+                coalesced.incrementAndGet();
+                return;
+            }
+            if (events.isEmpty()) {
+                firstEventAtElapsedMillis = SystemClock.elapsedRealtime();
+                if (maxBatchSize > 1) {
+                    handler.postDelayed(ageFlush, maxDelayMillis);
+                }
+            }
+            events.put(key, event);
+            full = events.size() >= maxBatchSize;
+        }
+        if (full) {
+            flush(FlushReason.SIZE);
+        }
+    }
+
+    void flush(@NonNull FlushReason reason) {
+        List<CustomEvent> batch = take(reason);
+        if (!batch.isEmpty()) {
+            sink.submit(batch);
+        }
+    }
+
+    /**
+     * Empties the buffer without passing the events to the sink, for a caller which has to submit them
+     * in order with its own SDK call.
+     */
+    @NonNull
+    List<CustomEvent> take(@NonNull FlushReason reason) {
+        List<CustomEvent> batch;
+        synchronized (this) {
+            handler.removeCallbacks(ageFlush);
+            if (events.isEmpty()) {
+                return Collections.emptyList();
+            }
+            batch = new ArrayList<>(events.values());
+            events.clear();
+            flushLatencyMillis.record(SystemClock.elapsedRealtime() - firstEventAtElapsedMillis);
+        }
+        batchSize.record(batch.size());
+        submitted.addAndGet(batch.size());
+        flushes.get(reason).incrementAndGet();
+        CordovaLogger.d(TAG, "Submitting " + batch.size() + " custom events, flushed on " + reason);
+        return batch;
+    }
+
+    synchronized int depth() {
+        return events.size();
+    }
+
+    @NonNull
+    JSONObject toJSON() throws JSONException {
+        JSONObject flushCounts = new JSONObject();
+        for (Map.Entry<FlushReason, AtomicLong> entry : flushes.entrySet()) {
+            flushCounts.put(entry.getKey().name().toLowerCase(Locale.US), entry.getValue().get());
+        }
+        return new JSONObject()
+                .put("depth", depth())
+                .put("buffered", buffered.get())
+                .put("coalesced", coalesced.get())
+                .put("submitted", submitted.get())
+                .put("flushes", flushCounts)
+                .put("batchSize", batchSize.toJSON())
+                .put("flushLatencyMillis", flushLatencyMillis.toJSON());
+    }
+
+    /**
+     * Properties as text which does not depend on the order of their names.
+     */
+    private static String canonical(@Nullable JSONObject properties) {
+        if (properties == null) {
+            return "";
+        }
+        List<String> names = new ArrayList<>();
+        Iterator<String> iterator = properties.keys();
+        while (iterator.hasNext()) {
+            names.add(iterator.next());
+        }
+        Collections.sort(names);
+        StringBuilder text = new StringBuilder();
+        for (String name : names) {
+            text.append(name).append('=').append(properties.opt(name)).append('\n');
+        }
+        return text.toString();
+    }
+}
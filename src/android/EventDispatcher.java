@@ -0,0 +1,224 @@
+//
+//  EventDispatcher.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Delivers library events to the JS event receiver.
+ * <p>
+ * By default every event is sent right away as {@code [eventName, ...parameters]}.
+ * When batching is enabled, events are buffered for up to the configured delay or until the batch is full,
+ * and then sent with a single bridge callback as {@code {"events": [[eventName, ...parameters], ...]}}.
+ * <p>
+ * State events, which only carry the latest value of something, are conflated: a pending state event
+ * is replaced by a newer event of the same type, so only the newest value is delivered.
+ * State events are held for up to the configured delay even when batching is disabled,
+ * any other event flushes them first so the order of delivery is kept.
+ * <p>
+ * While the activity is paused all events are held in a bounded buffer, with state events still conflated,
+ * and sent as a single batch on resume. If the buffer fills up while paused, it is sent right away
+ * rather than dropping events.
+ */
+class EventDispatcher {
+
+    private static final String TAG = "EventDispatcher";
+
+    static final int DEFAULT_MAX_BATCH_SIZE = 1;
+    static final int DEFAULT_MAX_DELAY_MILLIS = 16;
+    static final int MAX_PAUSED_EVENTS = 256;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flushIfResumed();
+        }
+    };
+
+    private final Set<String> stateEvents;
+    private final List<JSONArray> pending = new ArrayList<>();
+    private final Map<String, Integer> pendingStateEvents = new HashMap<>();
+    private CallbackContext pendingReceiver;
+    private boolean flushScheduled;
+    private boolean paused;
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+
+    EventDispatcher(@NonNull String... stateEvents) {
+        Set<String> events = new HashSet<>();
+        Collections.addAll(events, stateEvents);
+        this.stateEvents = Collections.unmodifiableSet(events);
+    }
+
+    /**
+     * Configures batching, events are batched only if batch size is greater than one and delay is positive.
+     */
+    synchronized void configure(int maxBatchSize, long maxDelayMillis) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayMillis = Math.max(0, maxDelayMillis);
+        if (!isBatching()) {
+            flush();
+        }
+    }
+
+    synchronized void dispatch(@NonNull CallbackContext receiver, @NonNull JSONArray event) {
+        if (pendingReceiver != null && pendingReceiver != receiver) {
+            flush();
+        }
+
+        boolean stateEvent = stateEvents.contains(event.optString(0));
+        if (!paused && !isBatching() && !stateEvent) {
+            flush();
+            send(receiver, event);
+            return;
+        }
+
+        enqueue(receiver, event);
+        if (paused) {
+            if (pending.size() >= MAX_PAUSED_EVENTS) {
+                CordovaLogger.w(TAG, "Paused event buffer is full, sending " + pending.size() + " events");
+                flush();
+            }
+        } else if (isBatching() && pending.size() >= maxBatchSize) {
+            flush();
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            handler.postDelayed(flushRunnable, Math.max(maxDelayMillis, 1));
+        }
+    }
+
+    /**
+     * Sends provided events as a single batch, along with events which are already pending.
+     * Events are held until resume if the activity is paused.
+     */
+    synchronized void dispatchAll(@NonNull CallbackContext receiver, @NonNull List<JSONArray> events) {
+        if (pendingReceiver != null && pendingReceiver != receiver) {
+            flush();
+        }
+        for (JSONArray event : events) {
+            enqueue(receiver, event);
+        }
+        flushIfResumed();
+    }
+
+    /**
+     * Holds all events until {@link #resume()} is called.
+     */
+    synchronized void pause() {
+        paused = true;
+        if (flushScheduled) {
+            handler.removeCallbacks(flushRunnable);
+            flushScheduled = false;
+        }
+    }
+
+    /**
+     * Sends events held while paused as a single batch.
+     */
+    synchronized void resume() {
+        paused = false;
+        flush();
+    }
+
+    private void enqueue(CallbackContext receiver, JSONArray event) {
+        pendingReceiver = receiver;
+        String eventName = event.optString(0);
+        if (stateEvents.contains(eventName)) {
+            Integer previous = pendingStateEvents.remove(eventName);
+            if (previous != null) {
+                pending.remove((int) previous);
+                for (Map.Entry<String, Integer> entry : pendingStateEvents.entrySet()) {
+                    if (entry.getValue() > previous) {
+                        entry.setValue(entry.getValue() - 1);
+                    }
+                }
+            }
+            pendingStateEvents.put(eventName, pending.size());
+        }
+        pending.add(event);
+    }
+
+    private synchronized void flushIfResumed() {
+        if (paused) {
+            flushScheduled = false;
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * Sends all pending events right away.
+     */
+    synchronized void flush() {
+        if (flushScheduled) {
+            handler.removeCallbacks(flushRunnable);
+            flushScheduled = false;
+        }
+        if (pending.isEmpty()) {
+            pendingReceiver = null;
+            return;
+        }
+
+        CallbackContext receiver = pendingReceiver;
+        List<JSONArray> events = new ArrayList<>(pending);
+        pending.clear();
+        pendingStateEvents.clear();
+        pendingReceiver = null;
+
+        if (events.size() == 1) {
+            send(receiver, events.get(0));
+            return;
+        }
+
+        try {
+            JSONObject batch = new JSONObject();
+            batch.put("events", new JSONArray(events));
+            send(receiver, batch);
+        } catch (JSONException e) {
+            CordovaLogger.e(TAG, "Cannot create batch of " + events.size() + " events, sending them one by one", e);
+            for (JSONArray event : events) {
+                send(receiver, event);
+            }
+        }
+    }
+
+    private boolean isBatching() {
+        return maxBatchSize > 1 && maxDelayMillis > 0;
+    }
+
+    private static void send(CallbackContext receiver, JSONArray event) {
+        PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, event);
+        pluginResult.setKeepCallback(true);
+        receiver.sendPluginResult(pluginResult);
+    }
+
+    private static void send(CallbackContext receiver, JSONObject batch) {
+        PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, batch);
+        pluginResult.setKeepCallback(true);
+        receiver.sendPluginResult(pluginResult);
+    }
+}
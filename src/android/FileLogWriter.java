@@ -0,0 +1,306 @@
+//
+//  FileLogWriter.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import android.os.Process;
+import android.util.Log;
+
+import org.infobip.mobile.messaging.logging.Level;
+import org.infobip.mobile.messaging.logging.Writer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Log writer which persists native SDK and plugin logs into size-capped rotating files,
+ * so that they can be exported after an incident.
+ * <p>
+ * Callers only put records into a bounded queue and never wait for I/O, records which do not fit are dropped and counted.
+ * A dedicated background thread writes records in batches through a buffered stream into the current file,
+ * which is rotated once it exceeds the size limit: {@code plugin.log} becomes {@code plugin.log.1} and so on.
+ */
+public class FileLogWriter implements Writer, CordovaLogger.Sink {
+
+    private static final String TAG = "FileLogWriter";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String FILE_NAME = "plugin.log";
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int MAX_BATCH = 512;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static final int DEFAULT_MAX_FILE_SIZE_KB = 1024;
+    static final int DEFAULT_MAX_FILES = 3;
+
+    private final File directory;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final BlockingQueue<Record> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+
+    private final Object ioLock = new Object();
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+    @Nullable
+    private OutputStream output;
+    private long currentFileSize;
+    private volatile boolean closed;
+
+    private static class Record {
+        final long timestamp;
+        final Level level;
+        final String tag;
+        final String message;
+        final Throwable throwable;
+
+        Record(long timestamp, Level level, String tag, String message, Throwable throwable) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.tag = tag;
+            this.message = message;
+            this.throwable = throwable;
+        }
+    }
+
+    public FileLogWriter(@NonNull File directory, int maxFileSizeKb, int maxFiles) {
+        this.directory = directory;
+        this.maxFileSize = Math.max(1, maxFileSizeKb) * 1024L;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                writeLoop();
+            }
+        }, "MMCordova-file-logs");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void write(Level level, String tag, String message, @Nullable Throwable throwable) {
+        if (CordovaLogger.getFilter().accept(tag, level)) {
+            append(level, tag, message, throwable);
+        }
+    }
+
+    /**
+     * Queues the entry for writing, the entry is expected to be already accepted by the log filter.
+     */
+    @Override
+    public void append(Level level, String tag, String message, @Nullable Throwable throwable) {
+        if (closed || message == null) {
+            return;
+        }
+        if (!queue.offer(new Record(System.currentTimeMillis(), level, tag, message, throwable))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Stops the writer, records which are already queued are written before the file is closed.
+     */
+    public void close() {
+        closed = true;
+        thread.interrupt();
+    }
+
+    /**
+     * Writes all queued records and copies log files, oldest first, into the target file.
+     *
+     * @return number of bytes exported
+     */
+    public long export(@NonNull File target) throws IOException {
+        File parent = target.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+
+        synchronized (ioLock) {
+            List<Record> batch = new ArrayList<>();
+            queue.drainTo(batch);
+            writeBatch(batch);
+            if (output != null) {
+                output.flush();
+            }
+
+            long exported = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(target), BUFFER_SIZE);
+            try {
+                for (int i = maxFiles - 1; i >= 0; i--) {
+                    File file = logFile(i);
+                    if (!file.exists()) {
+                        continue;
+                    }
+                    InputStream in = new FileInputStream(file);
+                    try {
+                        int read;
+                        while ((read = in.read(buffer)) != -1) {
+                            out.write(buffer, 0, read);
+                            exported += read;
+                        }
+                    } finally {
+                        in.close();
+                    }
+                }
+            } finally {
+                out.close();
+            }
+            return exported;
+        }
+    }
+
+    private void writeLoop() {
+        List<Record> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                if (closed && queue.isEmpty()) {
+                    break;
+                }
+                Record first = queue.take();
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+            } catch (InterruptedException e) {
+                if (!closed) {
+                    continue;
+                }
+                queue.drainTo(batch);
+            }
+
+            synchronized (ioLock) {
+                try {
+                    writeBatch(batch);
+                    if (queue.isEmpty() && output != null) {
+                        output.flush();
+                    }
+                } catch (IOException e) {
+                    Log.e(TAG, "Cannot write logs to file: " + e.getMessage());
+                    closeOutput();
+                }
+            }
+            batch.clear();
+        }
+
+        synchronized (ioLock) {
+            closeOutput();
+        }
+    }
+
+    /**
+     * Must be called with ioLock held.
+     */
+    private void writeBatch(List<Record> batch) throws IOException {
+        long droppedCount = dropped.getAndSet(0);
+        if (droppedCount > 0) {
+            writeLine(dateFormat.format(new Date()) + " W/" + TAG + ": " + droppedCount + " log records dropped\n");
+        }
+        for (Record record : batch) {
+            writeLine(format(record));
+        }
+    }
+
+    private void writeLine(String line) throws IOException {
+        byte[] bytes = line.getBytes(UTF_8);
+        if (output == null) {
+            openOutput();
+        } else if (currentFileSize + bytes.length > maxFileSize) {
+            rotate();
+        }
+        output.write(bytes);
+        currentFileSize += bytes.length;
+    }
+
+    private String format(Record record) {
+        StringBuilder builder = new StringBuilder(record.message.length() + 64);
+        builder.append(dateFormat.format(new Date(record.timestamp)))
+                .append(' ')
+                .append(levelChar(record.level))
+                .append('/')
+                .append(record.tag)
+                .append(": ")
+                .append(record.message)
+                .append('\n');
+        if (record.throwable != null) {
+            builder.append(Log.getStackTraceString(record.throwable)).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private void openOutput() throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File file = logFile(0);
+        currentFileSize = file.length();
+        output = new BufferedOutputStream(new FileOutputStream(file, true), BUFFER_SIZE);
+    }
+
+    private void rotate() throws IOException {
+        closeOutput();
+        File oldest = logFile(maxFiles - 1);
+        if (oldest.exists() && !oldest.delete()) {
+            Log.w(TAG, "Cannot delete " + oldest);
+        }
+        for (int i = maxFiles - 2; i >= 0; i--) {
+            File file = logFile(i);
+            if (file.exists() && !file.renameTo(logFile(i + 1))) {
+                Log.w(TAG, "Cannot rotate " + file);
+            }
+        }
+        openOutput();
+    }
+
+    private void closeOutput() {
+        if (output == null) {
+            return;
+        }
+        try {
+            output.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot close log file: " + e.getMessage());
+        }
+        output = null;
+    }
+
+    private File logFile(int index) {
+        return new File(directory, index == 0 ? FILE_NAME : FILE_NAME + "." + index);
+    }
+
+    private static char levelChar(Level level) {
+        switch (level) {
+            case VERBOSE:
+                return 'V';
+            case DEBUG:
+                return 'D';
+            case INFO:
+                return 'I';
+            case WARN:
+                return 'W';
+            default:
+                return 'E';
+        }
+    }
+}
@@ -0,0 +1,260 @@
+//
+//  InboxCache.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import android.os.SystemClock;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Recently fetched inbox pages, keyed by external user id and filter options, kept as serialized header and messages,
+ * so that a cached page is sent as JSON text or as a binary frame without being parsed again.
+ * <p>
+ * A cached page younger than the TTL is returned right away while the inbox is fetched again in background,
+ * JS is notified only if the fetched page differs. Pages are evicted least recently used first once their
+ * total JSON size exceeds the limit. Fetches which started before the cache was invalidated do not fill it again.
+ */
+class InboxCache {
+
+    private static final String TAG = "InboxCache";
+    static final long DEFAULT_TTL_SECONDS = 24 * 60 * 60;
+    static final int DEFAULT_MAX_SIZE_KB = 512;
+
+    /**
+     * Inbox page split into the JSON object of its other fields and JSON of each message.
+     */
+    static class Page {
+        @NonNull
+        final String header;
+        @Nullable
+        final List<String> messages;
+        final int length;
+
+        private Page(@NonNull String header, @Nullable List<String> messages) {
+            this.header = header;
+            this.messages = messages;
+            int length = header.length();
+            if (messages != null) {
+                for (String message : messages) {
+                    length += message.length() + 1;
+                }
+            }
+            this.length = length;
+        }
+
+        /**
+         * Splits the inbox JSON produced by the inbox mapper.
+         */
+        @NonNull
+        static Page from(@NonNull JSONObject inbox) {
+            JSONObject header = new JSONObject();
+            List<String> messages = null;
+            Iterator<String> names = inbox.keys();
+            try {
+                while (names.hasNext()) {
+                    String name = names.next();
+                    Object value = inbox.opt(name);
+                    if ("messages".equals(name) && value instanceof JSONArray) {
+                        JSONArray array = (JSONArray) value;
+                        messages = new ArrayList<>(array.length());
+                        for (int i = 0; i < array.length(); i++) {
+                            messages.add(String.valueOf(array.opt(i)));
+                        }
+                    } else {
+                        header.put(name, value);
+                    }
+                }
+            } catch (JSONException e) {
+                CordovaLogger.w(TAG, "Cannot split inbox: " + e.getMessage());
+            }
+            return new Page(header.toString(), messages);
+        }
+
+        /**
+         * Whole page as JSON text, joined from the already serialized parts.
+         */
+        @NonNull
+        String json() {
+            if (messages == null) {
+                return header;
+            }
+            StringBuilder json = new StringBuilder(length + 16);
+            json.append(header, 0, header.length() - 1);
+            if (header.length() > 2) {
+                json.append(',');
+            }
+            json.append("\"messages\":[");
+            for (int i = 0; i < messages.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append(messages.get(i));
+            }
+            return json.append("]}").toString();
+        }
+
+        boolean sameAs(@Nullable Page other) {
+            return other != null && header.equals(other.header)
+                    && (messages == null ? other.messages == null : messages.equals(other.messages));
+        }
+    }
+
+    private static class Entry {
+        final String externalUserId;
+        final Page page;
+        final long fetchedAtElapsedMillis;
+
+        Entry(String externalUserId, Page page) {
+            this.externalUserId = externalUserId;
+            this.page = page;
+            this.fetchedAtElapsedMillis = SystemClock.elapsedRealtime();
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> revalidating = new HashSet<>();
+    private final long ttlMillis;
+    private final long maxSize;
+    private long size;
+    private long generation;
+
+    InboxCache(long ttlSeconds, int maxSizeKb) {
+        this.ttlMillis = Math.max(1, ttlSeconds) * 1000L;
+        this.maxSize = Math.max(1, maxSizeKb) * 1024L;
+    }
+
+    /**
+     * Builds the key of a page, filter options are compared regardless of the order of their fields.
+     */
+    @NonNull
+    static String key(@NonNull String externalUserId, @Nullable JSONObject filterOptions) {
+        StringBuilder key = new StringBuilder(externalUserId).append('\n');
+        if (filterOptions == null) {
+            return key.toString();
+        }
+        List<String> names = new ArrayList<>();
+        Iterator<String> iterator = filterOptions.keys();
+        while (iterator.hasNext()) {
+            names.add(iterator.next());
+        }
+        Collections.sort(names);
+        for (String name : names) {
+            Object value = filterOptions.opt(name);
+            if (value == null || value == JSONObject.NULL) {
+                continue;
+            }
+            key.append(name).append('=').append(value).append('\n');
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return the cached page or null if there is none or it is older than the TTL
+     */
+    @Nullable
+    synchronized Page get(@NonNull String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (SystemClock.elapsedRealtime() - entry.fetchedAtElapsedMillis > ttlMillis) {
+            remove(key);
+            return null;
+        }
+        return entry.page;
+    }
+
+    /**
+     * Current generation, to be passed to {@link #put(String, String, Page, long)} with the result of a fetch started now.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores a fetched page, unless the cache was invalidated since the fetch started.
+     */
+    synchronized void put(@NonNull String key, @NonNull String externalUserId, @NonNull Page page, long generation) {
+        if (generation != this.generation) {
+            CordovaLogger.d(TAG, "Ignoring inbox fetched before invalidation");
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry(externalUserId, page));
+        size += page.length;
+        evict();
+    }
+
+    /**
+     * Marks the page as being fetched in background.
+     *
+     * @return false if it is already being fetched
+     */
+    synchronized boolean startRevalidation(@NonNull String key) {
+        return revalidating.add(key);
+    }
+
+    synchronized void finishRevalidation(@NonNull String key) {
+        revalidating.remove(key);
+    }
+
+    /**
+     * Drops all pages of the user, e.g. after their messages were marked as seen.
+     */
+    synchronized void invalidate(@NonNull String externalUserId) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (externalUserId.equals(entry.externalUserId)) {
+                size -= entry.page.length;
+                iterator.remove();
+            }
+        }
+        generation++;
+    }
+
+    /**
+     * Drops everything, e.g. on depersonalization.
+     */
+    synchronized void invalidate() {
+        entries.clear();
+        size = 0;
+        generation++;
+        CordovaLogger.d(TAG, "Invalidated");
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            size -= entry.page.length;
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            size -= iterator.next().page.length;
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,541 @@
+//
+//  InboxStore.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import org.infobip.mobile.messaging.inbox.Inbox;
+import org.infobip.mobile.messaging.inbox.InboxMessage;
+import org.infobip.mobile.messaging.inbox.MobileInboxFilterOptions;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TimeZone;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Locally persisted inbox used for incremental synchronization. Each synchronized inbox, identified by external user id
+ * and topic filter, keeps its messages as the JSON sent to JS, the newest message timestamp to fetch newer messages from,
+ * and the other fields of the last fetched inbox, like total and unread counts.
+ * <p>
+ * A synchronized inbox holds every message sent since its oldest stored message, and all messages once a fetch returned
+ * the whole history. Filter options which only reach into that range are answered from here without a network request.
+ */
+class InboxStore {
+
+    private static final String TAG = "InboxStore";
+    private static final String DATABASE_NAME = "mm_cordova_inbox.db";
+    private static final int DATABASE_VERSION = 2;
+
+    static final String TABLE_MESSAGES = "inbox_messages";
+    static final String TABLE_STATE = "inbox_state";
+    static final String COLUMN_INBOX = "inbox";
+    static final String COLUMN_ID = "id";
+    static final String COLUMN_SENT_TIMESTAMP = "sent_timestamp";
+    static final String COLUMN_SEEN = "seen";
+    static final String COLUMN_TOPIC = "topic";
+    static final String COLUMN_PAYLOAD = "payload";
+    private static final String COLUMN_EXTERNAL_USER_ID = "external_user_id";
+    private static final String COLUMN_NEWEST_TIMESTAMP = "newest_timestamp";
+    private static final String COLUMN_HEADER = "header";
+    private static final String COLUMN_COMPLETE = "complete";
+
+    /**
+     * Oldest messages above this number are dropped from a synchronized inbox.
+     */
+    static final int MAX_MESSAGES = 1000;
+    private static final int MAX_IDS_PER_STATEMENT = 500;
+
+    private static final String SQL_UPSERT = "INSERT OR REPLACE INTO " + TABLE_MESSAGES + " ("
+            + COLUMN_INBOX + ", " + COLUMN_ID + ", " + COLUMN_SENT_TIMESTAMP + ", " + COLUMN_SEEN + ", "
+            + COLUMN_TOPIC + ", " + COLUMN_PAYLOAD + ") VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SQL_TRIM = "DELETE FROM " + TABLE_MESSAGES + " WHERE " + COLUMN_INBOX + " = ? AND rowid NOT IN (SELECT rowid FROM "
+            + TABLE_MESSAGES + " WHERE " + COLUMN_INBOX + " = ? ORDER BY " + COLUMN_SENT_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC LIMIT "
+            + MAX_MESSAGES + ")";
+
+    private static volatile DatabaseHelper databaseHelper;
+
+    /**
+     * Synchronization state of one inbox.
+     */
+    static class State {
+        final long newestTimestamp;
+        @NonNull
+        final JSONObject header;
+        /**
+         * Whether there are no messages older than the oldest stored one.
+         */
+        final boolean complete;
+
+        State(long newestTimestamp, @NonNull JSONObject header, boolean complete) {
+            this.newestTimestamp = newestTimestamp;
+            this.header = header;
+            this.complete = complete;
+        }
+    }
+
+    /**
+     * Page of stored messages matching filter options, newest first.
+     */
+    static class Page {
+        @NonNull
+        final JSONObject header;
+        @NonNull
+        final List<String> messages;
+        /**
+         * Cursor to continue after the last message of the page, null if there are no more messages.
+         */
+        @Nullable
+        final String nextCursor;
+
+        Page(@NonNull JSONObject header, @NonNull List<String> messages, @Nullable String nextCursor) {
+            this.header = header;
+            this.messages = messages;
+            this.nextCursor = nextCursor;
+        }
+    }
+
+    /**
+     * Identifies a synchronized inbox. Only the topic filter is part of it, date range and limit only affect what is fetched.
+     */
+    @NonNull
+    static String key(@NonNull String externalUserId, @Nullable JSONObject filterOptions) throws JSONException {
+        JSONObject topics = new JSONObject();
+        if (filterOptions != null) {
+            topics.putOpt("topic", filterOptions.opt("topic"));
+            topics.putOpt("topics", filterOptions.opt("topics"));
+        }
+        return InboxCache.key(externalUserId, topics);
+    }
+
+    /**
+     * Filter options which fetch messages sent since the given time, time is rounded down to whole seconds
+     * and messages which are already stored are skipped when merging.
+     */
+    @NonNull
+    static JSONObject deltaFilterOptions(@Nullable JSONObject filterOptions, long sinceMillis, int limit) throws JSONException {
+        JSONObject delta = filterOptions != null ? new JSONObject(filterOptions.toString()) : new JSONObject();
+        delta.put("fromDateTime", formatDateTime(sinceMillis));
+        delta.remove("toDateTime");
+        delta.put("limit", limit);
+        return delta;
+    }
+
+    /**
+     * Formats time for filter options, rounded down to whole seconds.
+     */
+    @NonNull
+    static String formatDateTime(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'+00:00'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(millis));
+    }
+
+    @Nullable
+    static State state(@NonNull Context context, @NonNull String key) {
+        Cursor cursor = database(context).query(TABLE_STATE, new String[]{COLUMN_NEWEST_TIMESTAMP, COLUMN_HEADER, COLUMN_COMPLETE},
+                COLUMN_INBOX + " = ?", new String[]{key}, null, null, null);
+        try {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            return new State(cursor.getLong(0), new JSONObject(cursor.getString(1)), cursor.getLong(2) != 0);
+        } catch (JSONException e) {
+            CordovaLogger.w(TAG, "Cannot parse stored inbox state: " + e.getMessage());
+            return null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Stores fetched messages, replacing all stored ones if the inbox was fetched in full.
+     *
+     * @param json       inbox as mapped for JS, its messages are in the same order as in the inbox
+     * @param fetchedAll whether a full fetch returned the whole history, i.e. less messages than its limit and no start date
+     * @return number of messages which were not stored before
+     */
+    static int save(@NonNull Context context, @NonNull String key, @NonNull String externalUserId,
+                    @NonNull Inbox inbox, @NonNull JSONObject json, boolean full, boolean fetchedAll) throws JSONException {
+        JSONArray messagesJson = json.optJSONArray("messages");
+        JSONObject header = new JSONObject(json.toString());
+        header.remove("messages");
+        List<InboxMessage> messages = inbox.getMessages() != null ? inbox.getMessages() : new ArrayList<InboxMessage>();
+
+        SQLiteDatabase db = database(context);
+        db.beginTransaction();
+        try {
+            State state = full ? null : state(context, key);
+            long newest = state != null ? state.newestTimestamp : 0;
+            boolean complete = full ? fetchedAll : state != null && state.complete;
+            if (full) {
+                db.delete(TABLE_MESSAGES, COLUMN_INBOX + " = ?", new String[]{key});
+            }
+
+            int added = 0;
+            int addedUnread = 0;
+            SQLiteStatement exists = db.compileStatement("SELECT COUNT(*) FROM " + TABLE_MESSAGES
+                    + " WHERE " + COLUMN_INBOX + " = ? AND " + COLUMN_ID + " = ?");
+            SQLiteStatement upsert = db.compileStatement(SQL_UPSERT);
+            try {
+                for (int i = 0; i < messages.size(); i++) {
+                    InboxMessage message = messages.get(i);
+                    JSONObject messageJson = messagesJson != null ? messagesJson.optJSONObject(i) : null;
+                    if (message == null || message.getMessageId() == null || messageJson == null) {
+                        continue;
+                    }
+                    exists.bindString(1, key);
+                    exists.bindString(2, message.getMessageId());
+                    if (exists.simpleQueryForLong() == 0) {
+                        added++;
+                        if (!message.isSeen()) {
+                            addedUnread++;
+                        }
+                    }
+
+                    upsert.clearBindings();
+                    upsert.bindString(1, key);
+                    upsert.bindString(2, message.getMessageId());
+                    upsert.bindLong(3, message.getSentTimestamp());
+                    upsert.bindLong(4, message.isSeen() ? 1 : 0);
+                    if (message.getTopic() != null) {
+                        upsert.bindString(5, message.getTopic());
+                    } else {
+                        upsert.bindNull(5);
+                    }
+                    upsert.bindString(6, messageJson.toString());
+                    upsert.executeInsert();
+                    newest = Math.max(newest, message.getSentTimestamp());
+                }
+            } finally {
+                upsert.close();
+                exists.close();
+            }
+
+            SQLiteStatement trim = db.compileStatement(SQL_TRIM);
+            try {
+                trim.bindString(1, key);
+                trim.bindString(2, key);
+                if (trim.executeUpdateDelete() > 0) {
+                    complete = false;
+                }
+            } finally {
+                trim.close();
+            }
+
+            if (state != null) {
+                // delta response counts only messages newer than the stored ones within the filter
+                addFilteredCount(header, state.header, "countTotalFiltered", added);
+                addFilteredCount(header, state.header, "countUnreadFiltered", addedUnread);
+            }
+
+            ContentValues values = new ContentValues();
+            values.put(COLUMN_INBOX, key);
+            values.put(COLUMN_EXTERNAL_USER_ID, externalUserId);
+            values.put(COLUMN_NEWEST_TIMESTAMP, newest);
+            values.put(COLUMN_HEADER, header.toString());
+            values.put(COLUMN_COMPLETE, complete ? 1 : 0);
+            db.insertWithOnConflict(TABLE_STATE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            db.setTransactionSuccessful();
+            return added;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Messages of the inbox as JSON, newest first.
+     */
+    @NonNull
+    static List<String> messages(@NonNull Context context, @NonNull String key) {
+        Cursor cursor = database(context).query(TABLE_MESSAGES, new String[]{COLUMN_PAYLOAD}, COLUMN_INBOX + " = ?", new String[]{key},
+                null, null, COLUMN_SENT_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC");
+        try {
+            List<String> messages = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                messages.add(cursor.getString(0));
+            }
+            return messages;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Evaluates filter options against a synchronized inbox of the user, either the one synchronized with the same topic filter
+     * or the one synchronized without topic filter.
+     * Filtered counts are included only if the stored messages cover the whole filtered range.
+     *
+     * @param cursor position to continue after, as returned in {@link Page#nextCursor}
+     * @return page of messages or null if no synchronized inbox has all messages needed for the page
+     */
+    @Nullable
+    static Page query(@NonNull Context context, @NonNull String externalUserId, @Nullable JSONObject filterJson,
+                      @NonNull MobileInboxFilterOptions filterOptions, int limit, @Nullable String cursor) throws JSONException {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(key(externalUserId, filterJson));
+        keys.add(key(externalUserId, null));
+        for (String key : keys) {
+            State state = state(context, key);
+            if (state != null) {
+                Page page = query(database(context), key, state, filterOptions, limit, cursor);
+                if (page != null) {
+                    return page;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Page query(SQLiteDatabase db, String key, State state, MobileInboxFilterOptions filterOptions,
+                              int limit, @Nullable String cursor) throws JSONException {
+        StringBuilder selection = new StringBuilder(COLUMN_INBOX + " = ?");
+        List<String> args = new ArrayList<>();
+        args.add(key);
+        List<String> topics = filterOptions.getTopics();
+        if (filterOptions.getTopic() != null) {
+            topics = Collections.singletonList(filterOptions.getTopic());
+        }
+        if (topics != null && !topics.isEmpty()) {
+            selection.append(" AND ").append(COLUMN_TOPIC).append(" IN (").append(CordovaMessageStore.placeholders(topics.size())).append(')');
+            args.addAll(topics);
+        }
+        Date from = filterOptions.getFromDateTime();
+        if (from != null) {
+            selection.append(" AND ").append(COLUMN_SENT_TIMESTAMP).append(" >= ?");
+            args.add(String.valueOf(from.getTime()));
+        }
+        Date to = filterOptions.getToDateTime();
+        if (to != null) {
+            selection.append(" AND ").append(COLUMN_SENT_TIMESTAMP).append(" < ?");
+            args.add(String.valueOf(to.getTime()));
+        }
+
+        boolean rangeComplete = state.complete;
+        if (!rangeComplete && from != null) {
+            long oldest = DatabaseUtils.longForQuery(db, "SELECT IFNULL(MIN(" + COLUMN_SENT_TIMESTAMP + "), " + Long.MAX_VALUE + ") FROM "
+                    + TABLE_MESSAGES + " WHERE " + COLUMN_INBOX + " = ?", new String[]{key});
+            rangeComplete = from.getTime() >= oldest;
+        }
+
+        JSONObject header = new JSONObject(state.header.toString());
+        if (rangeComplete) {
+            Cursor counts = db.query(TABLE_MESSAGES, new String[]{"COUNT(*)", "IFNULL(SUM(" + COLUMN_SEEN + " = 0), 0)"},
+                    selection.toString(), args.toArray(new String[args.size()]), null, null, null);
+            try {
+                if (counts.moveToFirst()) {
+                    header.put("countTotalFiltered", counts.getLong(0));
+                    header.put("countUnreadFiltered", counts.getLong(1));
+                }
+            } finally {
+                counts.close();
+            }
+        } else {
+            header.remove("countTotalFiltered");
+            header.remove("countUnreadFiltered");
+        }
+
+        if (cursor != null) {
+            String[] position = CordovaMessageStore.decodeToken(cursor);
+            selection.append(" AND (").append(COLUMN_SENT_TIMESTAMP).append(" < ? OR (").append(COLUMN_SENT_TIMESTAMP)
+                    .append(" = ? AND ").append(COLUMN_ID).append(" < ?))");
+            args.add(position[0]);
+            args.add(position[0]);
+            args.add(position[1]);
+        }
+        Cursor rows = db.query(TABLE_MESSAGES, new String[]{COLUMN_PAYLOAD, COLUMN_SENT_TIMESTAMP, COLUMN_ID},
+                selection.toString(), args.toArray(new String[args.size()]), null, null,
+                COLUMN_SENT_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC", String.valueOf(limit + 1));
+        try {
+            List<String> messages = new ArrayList<>(Math.min(limit, rows.getCount()));
+            long lastSent = 0;
+            String lastId = null;
+            boolean more = false;
+            while (rows.moveToNext()) {
+                if (messages.size() == limit) {
+                    more = true;
+                    break;
+                }
+                messages.add(rows.getString(0));
+                lastSent = rows.getLong(1);
+                lastId = rows.getString(2);
+            }
+            // older messages than the stored ones may exist, a full page is still right as nothing between its messages is missing
+            if (!rangeComplete && messages.size() < limit) {
+                return null;
+            }
+            boolean hasNext = more || (!rangeComplete && lastId != null);
+            return new Page(header, messages, hasNext ? CordovaMessageStore.encodeToken(lastSent, lastId) : null);
+        } finally {
+            rows.close();
+        }
+    }
+
+    /**
+     * Sets the filtered count of a delta save to the previous count increased by newly stored messages.
+     */
+    private static void addFilteredCount(JSONObject header, JSONObject previousHeader, String field, int added) throws JSONException {
+        if (previousHeader.has(field) && !previousHeader.isNull(field)) {
+            header.put(field, previousHeader.getLong(field) + added);
+        } else {
+            header.remove(field);
+        }
+    }
+
+    /**
+     * Marks messages of all inboxes of the user as seen and decreases their unread counts accordingly,
+     * so that a following incremental synchronization does not need to refetch them.
+     */
+    static void markSeen(@NonNull Context context, @NonNull String externalUserId, @NonNull String[] messageIds) {
+        SQLiteDatabase db = database(context);
+        db.beginTransaction();
+        try {
+            Cursor states = db.query(TABLE_STATE, new String[]{COLUMN_INBOX, COLUMN_HEADER}, COLUMN_EXTERNAL_USER_ID + " = ?",
+                    new String[]{externalUserId}, null, null, null);
+            try {
+                while (states.moveToNext()) {
+                    String key = states.getString(0);
+                    int changed = markSeen(db, key, messageIds);
+                    if (changed > 0) {
+                        ContentValues values = new ContentValues();
+                        values.put(COLUMN_HEADER, decreaseUnread(states.getString(1), changed));
+                        db.update(TABLE_STATE, values, COLUMN_INBOX + " = ?", new String[]{key});
+                    }
+                }
+            } finally {
+                states.close();
+            }
+            db.setTransactionSuccessful();
+        } catch (JSONException e) {
+            CordovaLogger.w(TAG, "Cannot mark stored inbox messages as seen: " + e.getMessage());
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Drops all synchronized inboxes, e.g. on depersonalization.
+     */
+    static void clear(@NonNull Context context) {
+        SQLiteDatabase db = database(context);
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_MESSAGES, null, null);
+            db.delete(TABLE_STATE, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static int markSeen(SQLiteDatabase db, String key, String[] messageIds) throws JSONException {
+        int changed = 0;
+        for (int offset = 0; offset < messageIds.length; offset += MAX_IDS_PER_STATEMENT) {
+            int count = Math.min(MAX_IDS_PER_STATEMENT, messageIds.length - offset);
+            String[] args = new String[count + 1];
+            args[0] = key;
+            System.arraycopy(messageIds, offset, args, 1, count);
+            Cursor cursor = db.query(TABLE_MESSAGES, new String[]{"rowid", COLUMN_PAYLOAD},
+                    COLUMN_INBOX + " = ? AND " + COLUMN_SEEN + " = 0 AND " + COLUMN_ID + " IN (" + CordovaMessageStore.placeholders(count) + ")",
+                    args, null, null, null);
+            try {
+                while (cursor.moveToNext()) {
+                    JSONObject payload = new JSONObject(cursor.getString(1));
+                    payload.put("seen", true);
+                    ContentValues values = new ContentValues();
+                    values.put(COLUMN_SEEN, 1);
+                    values.put(COLUMN_PAYLOAD, payload.toString());
+                    changed += db.update(TABLE_MESSAGES, values, "rowid = ?", new String[]{cursor.getString(0)});
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        return changed;
+    }
+
+    private static String decreaseUnread(String headerJson, int count) throws JSONException {
+        JSONObject header = new JSONObject(headerJson);
+        for (String field : new String[]{"countUnread", "countUnreadFiltered"}) {
+            if (header.has(field) && !header.isNull(field)) {
+                header.put(field, Math.max(0, header.getInt(field) - count));
+            }
+        }
+        return header.toString();
+    }
+
+    static SQLiteDatabase database(Context context) {
+        DatabaseHelper helper = databaseHelper;
+        if (helper == null) {
+            synchronized (InboxStore.class) {
+                helper = databaseHelper;
+                if (helper == null) {
+                    helper = new DatabaseHelper(context.getApplicationContext());
+                    databaseHelper = helper;
+                }
+            }
+        }
+        return helper.getWritableDatabase();
+    }
+
+    private static class DatabaseHelper extends SQLiteOpenHelper {
+
+        DatabaseHelper(Context context) {
+            super(context, DATABASE_NAME, null, DATABASE_VERSION);
+            setWriteAheadLoggingEnabled(true);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE " + TABLE_MESSAGES + " ("
+                    + COLUMN_INBOX + " TEXT NOT NULL, "
+                    + COLUMN_ID + " TEXT NOT NULL, "
+                    + COLUMN_SENT_TIMESTAMP + " INTEGER NOT NULL DEFAULT 0, "
+                    + COLUMN_SEEN + " INTEGER NOT NULL DEFAULT 0, "
+                    + COLUMN_TOPIC + " TEXT, "
+                    + COLUMN_PAYLOAD + " TEXT NOT NULL, "
+                    + "PRIMARY KEY (" + COLUMN_INBOX + ", " + COLUMN_ID + "))");
+            db.execSQL("CREATE INDEX " + TABLE_MESSAGES + "_" + COLUMN_SENT_TIMESTAMP
+                    + " ON " + TABLE_MESSAGES + " (" + COLUMN_INBOX + ", " + COLUMN_SENT_TIMESTAMP + ")");
+            db.execSQL("CREATE TABLE " + TABLE_STATE + " ("
+                    + COLUMN_INBOX + " TEXT PRIMARY KEY NOT NULL, "
+                    + COLUMN_EXTERNAL_USER_ID + " TEXT NOT NULL, "
+                    + COLUMN_NEWEST_TIMESTAMP + " INTEGER NOT NULL DEFAULT 0, "
+                    + COLUMN_HEADER + " TEXT NOT NULL, "
+                    + COLUMN_COMPLETE + " INTEGER NOT NULL DEFAULT 0)");
+            db.execSQL("CREATE INDEX " + TABLE_STATE + "_" + COLUMN_EXTERNAL_USER_ID
+                    + " ON " + TABLE_STATE + " (" + COLUMN_EXTERNAL_USER_ID + ")");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            if (oldVersion < 2) {
+                db.execSQL("ALTER TABLE " + TABLE_STATE + " ADD COLUMN " + COLUMN_COMPLETE + " INTEGER NOT NULL DEFAULT 0");
+            }
+        }
+    }
+}
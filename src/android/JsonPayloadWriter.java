@@ -0,0 +1,289 @@
+//
+//  JsonPayloadWriter.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Writes bridge payloads as JSON text straight into a per-thread buffer, without building {@link JSONObject} trees first.
+ * Values which are already serialized, like stored messages, are copied in as they are.
+ * <p>
+ * The result is handed to {@link PluginResult} as is: Cordova encodes JSON results by calling {@code toString()},
+ * which for the wrapper returned by {@link #toPluginResult(PluginResult.Status)} is the written text.
+ * Writers are reused per thread through {@link PayloadBufferPool}.
+ */
+class JsonPayloadWriter implements PayloadBufferPool.Buffer {
+
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final int MAX_DEPTH = 32;
+
+    private static final PayloadBufferPool<JsonPayloadWriter> writers = new PayloadBufferPool<>(
+            new PayloadBufferPool.Factory<JsonPayloadWriter>() {
+                @NonNull
+                @Override
+                public JsonPayloadWriter create() {
+                    return new JsonPayloadWriter();
+                }
+            });
+
+    private StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+    private final boolean[] hasElements = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean afterName;
+
+    private JsonPayloadWriter() {
+    }
+
+    /**
+     * Returns the writer of the current thread with an empty buffer.
+     */
+    @NonNull
+    static JsonPayloadWriter obtain() {
+        return writers.obtain();
+    }
+
+    @Override
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public void reset(boolean release) {
+        if (release) {
+            buffer = new StringBuilder(INITIAL_CAPACITY);
+        } else {
+            buffer.setLength(0);
+        }
+        depth = 0;
+        afterName = false;
+    }
+
+    JsonPayloadWriter beginArray() {
+        return open('[');
+    }
+
+    JsonPayloadWriter endArray() {
+        return close(']');
+    }
+
+    JsonPayloadWriter beginObject() {
+        return open('{');
+    }
+
+    JsonPayloadWriter endObject() {
+        return close('}');
+    }
+
+    JsonPayloadWriter name(@NonNull String name) {
+        separate();
+        writeString(name);
+        buffer.append(':');
+        afterName = true;
+        return this;
+    }
+
+    JsonPayloadWriter value(@Nullable String value) {
+        separate();
+        if (value == null) {
+            buffer.append("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    JsonPayloadWriter value(long value) {
+        separate();
+        buffer.append(value);
+        return this;
+    }
+
+    JsonPayloadWriter value(boolean value) {
+        separate();
+        buffer.append(value);
+        return this;
+    }
+
+    JsonPayloadWriter nullValue() {
+        separate();
+        buffer.append("null");
+        return this;
+    }
+
+    /**
+     * Copies a value which is already valid JSON text.
+     */
+    JsonPayloadWriter rawValue(@NonNull String json) {
+        separate();
+        buffer.append(json);
+        return this;
+    }
+
+    /**
+     * Copies all fields of the object into the currently open object.
+     */
+    JsonPayloadWriter fields(@NonNull JSONObject object) {
+        Iterator<String> names = object.keys();
+        while (names.hasNext()) {
+            String name = names.next();
+            Object value = object.opt(name);
+            name(name);
+            if (value instanceof String) {
+                value((String) value);
+            } else {
+                rawValue(String.valueOf(value));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Number of characters written so far.
+     */
+    int length() {
+        return buffer.length();
+    }
+
+    /**
+     * Creates the plugin result from the written text, which must be a single JSON object or array.
+     */
+    @NonNull
+    PluginResult toPluginResult(@NonNull PluginResult.Status status) {
+        if (depth != 0) {
+            throw new IllegalStateException("Unclosed JSON object or array");
+        }
+        String json = buffer.toString();
+        if (json.startsWith("{")) {
+            return new PluginResult(status, new RawJSONObject(json));
+        }
+        return new PluginResult(status, new RawJSONArray(json));
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+
+    private JsonPayloadWriter open(char bracket) {
+        separate();
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON nesting is too deep");
+        }
+        hasElements[depth++] = false;
+        buffer.append(bracket);
+        return this;
+    }
+
+    private JsonPayloadWriter close(char bracket) {
+        if (depth == 0) {
+            throw new IllegalStateException("Nothing to close");
+        }
+        depth--;
+        buffer.append(bracket);
+        return this;
+    }
+
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (hasElements[depth - 1]) {
+                buffer.append(',');
+            }
+            hasElements[depth - 1] = true;
+        }
+    }
+
+    private void writeString(String value) {
+        buffer.append('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    buffer.append("\\\"");
+                    break;
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                case '\u2028':
+                case '\u2029':
+                    // valid in JSON but not in JS source, which is how the bridge evaluates results
+                    appendUnicodeEscape(c);
+                    break;
+                default:
+                    if (c < 0x20) {
+                        appendUnicodeEscape(c);
+                    } else {
+                        buffer.append(c);
+                    }
+            }
+        }
+        buffer.append('"');
+    }
+
+    private void appendUnicodeEscape(char c) {
+        buffer.append("\\u");
+        String hex = Integer.toHexString(c);
+        for (int i = hex.length(); i < 4; i++) {
+            buffer.append('0');
+        }
+        buffer.append(hex);
+    }
+
+    /**
+     * Array which Cordova encodes as the already written text.
+     */
+    private static class RawJSONArray extends JSONArray {
+        private final String json;
+
+        RawJSONArray(String json) {
+            this.json = json;
+        }
+
+        @Override
+        public String toString() {
+            return json;
+        }
+    }
+
+    /**
+     * Object which Cordova encodes as the already written text.
+     */
+    private static class RawJSONObject extends JSONObject {
+        private final String json;
+
+        RawJSONObject(String json) {
+            this.json = json;
+        }
+
+        @Override
+        public String toString() {
+            return json;
+        }
+    }
+}
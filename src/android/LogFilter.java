@@ -0,0 +1,158 @@
+//
+//  LogFilter.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import android.os.SystemClock;
+
+import org.infobip.mobile.messaging.logging.Level;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Decides which log records are forwarded to the JS console: minimum level, tag allow and deny lists
+ * and a per-tag token-bucket rate limit. Errors are never rate limited.
+ * Instances are immutable apart from the rate limit state and are replaced as a whole when settings change.
+ */
+class LogFilter {
+
+    static final LogFilter ALLOW_ALL = new LogFilter(Level.VERBOSE, Collections.<String>emptySet(), Collections.<String>emptySet(), 0, 0);
+
+    private final Level minLevel;
+    private final Set<String> allowedTags;
+    private final Set<String> deniedTags;
+    private final double tokensPerMilli;
+    private final int burst;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private LogFilter(@NonNull Level minLevel, @NonNull Set<String> allowedTags, @NonNull Set<String> deniedTags, double ratePerSecond, int burst) {
+        this.minLevel = minLevel;
+        this.allowedTags = allowedTags;
+        this.deniedTags = deniedTags;
+        this.tokensPerMilli = ratePerSecond / 1000.0;
+        this.burst = ratePerSecond > 0 ? Math.max(1, burst) : 0;
+    }
+
+    /**
+     * Creates filter from JS settings:
+     * {@code {"minLevel": "WARN", "allowTags": [...], "denyTags": [...], "ratePerSecond": 10, "burst": 20}}.
+     * Missing settings do not restrict anything.
+     */
+    @NonNull
+    static LogFilter fromJSON(@Nullable JSONObject json) {
+        if (json == null) {
+            return ALLOW_ALL;
+        }
+        Level minLevel = Level.VERBOSE;
+        String level = json.optString("minLevel", null);
+        if (level != null) {
+            minLevel = Level.valueOf(level.toUpperCase(Locale.US));
+        }
+        double ratePerSecond = json.optDouble("ratePerSecond", 0);
+        if (Double.isNaN(ratePerSecond)) {
+            ratePerSecond = 0;
+        }
+        int burst = json.optInt("burst", (int) Math.ceil(ratePerSecond));
+        return new LogFilter(minLevel, toSet(json.optJSONArray("allowTags")), toSet(json.optJSONArray("denyTags")), ratePerSecond, burst);
+    }
+
+    /**
+     * Checks level and tag, does not consume rate limit tokens.
+     */
+    boolean isLoggable(@Nullable String tag, @NonNull Level level) {
+        if (rank(level) < rank(minLevel)) {
+            return false;
+        }
+        if (tag != null && deniedTags.contains(tag)) {
+            return false;
+        }
+        return allowedTags.isEmpty() || (tag != null && allowedTags.contains(tag));
+    }
+
+    /**
+     * Checks whether the record should be forwarded and consumes a rate limit token for it.
+     */
+    boolean accept(@Nullable String tag, @NonNull Level level) {
+        if (!isLoggable(tag, level)) {
+            return false;
+        }
+        if (burst == 0 || level == Level.ERROR) {
+            return true;
+        }
+
+        String key = tag != null ? tag : "";
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            TokenBucket created = new TokenBucket(burst);
+            bucket = buckets.putIfAbsent(key, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        return bucket.tryAcquire(tokensPerMilli, burst);
+    }
+
+    private static int rank(Level level) {
+        switch (level) {
+            case VERBOSE:
+                return 0;
+            case DEBUG:
+                return 1;
+            case INFO:
+                return 2;
+            case WARN:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    private static Set<String> toSet(@Nullable JSONArray array) {
+        if (array == null || array.length() == 0) {
+            return Collections.emptySet();
+        }
+        Set<String> set = new HashSet<>();
+        for (int i = 0; i < array.length(); i++) {
+            String value = array.optString(i, null);
+            if (value != null) {
+                set.add(value);
+            }
+        }
+        return Collections.unmodifiableSet(set);
+    }
+
+    private static class TokenBucket {
+        private double tokens;
+        private long lastRefill = SystemClock.elapsedRealtime();
+
+        TokenBucket(int burst) {
+            this.tokens = burst;
+        }
+
+        synchronized boolean tryAcquire(double tokensPerMilli, int burst) {
+            long now = SystemClock.elapsedRealtime();
+            tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerMilli);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+//
+//  MessageQuery.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import static org.apache.cordova.plugin.CordovaMessageStore.COLUMN_BODY;
+import static org.apache.cordova.plugin.CordovaMessageStore.COLUMN_CATEGORY;
+import static org.apache.cordova.plugin.CordovaMessageStore.COLUMN_ID;
+import static org.apache.cordova.plugin.CordovaMessageStore.COLUMN_RECEIVED_TIMESTAMP;
+import static org.apache.cordova.plugin.CordovaMessageStore.COLUMN_SEEN_TIMESTAMP;
+import static org.apache.cordova.plugin.CordovaMessageStore.COLUMN_SENT_TIMESTAMP;
+import static org.apache.cordova.plugin.CordovaMessageStore.COLUMN_TITLE;
+
+/**
+ * Query over the default message storage received from JS:
+ * <pre>
+ * {
+ *   "filter": {"seen": false, "category": "promo" | ["promo", ...], "sentAfter": 0, "sentBefore": 0,
+ *              "messageIds": [...], "customPayload": {"key": "value", ...}},
+ *   "sort": {"field": "receivedTimestamp", "order": "desc"},
+ *   "limit": 20,
+ *   "offset": 0,
+ *   "fields": ["messageId", "title", ...]
+ * }
+ * </pre>
+ * Everything apart from the custom payload filter is translated to SQL over indexed columns.
+ * Custom payload values are matched against the stored message JSON, in that case limit and offset are applied after matching.
+ */
+class MessageQuery {
+
+    /**
+     * Message JSON fields which are stored in their own columns, so they can be filtered, sorted and projected without reading the payload.
+     */
+    private static final Map<String, String> COLUMNS_BY_FIELD;
+
+    static {
+        Map<String, String> columns = new HashMap<>();
+        columns.put("messageId", COLUMN_ID);
+        columns.put("receivedTimestamp", COLUMN_RECEIVED_TIMESTAMP);
+        columns.put("seenDate", COLUMN_SEEN_TIMESTAMP);
+        columns.put("category", COLUMN_CATEGORY);
+        columns.put("title", COLUMN_TITLE);
+        columns.put("body", COLUMN_BODY);
+        COLUMNS_BY_FIELD = Collections.unmodifiableMap(columns);
+    }
+
+    static final int MAX_LIMIT = 1000;
+    private static final int MAX_VALUES = 500;
+
+    @NonNull
+    final String selection;
+    @NonNull
+    final String[] selectionArgs;
+    @NonNull
+    final String orderBy;
+    final int limit;
+    final int offset;
+    /**
+     * Requested fields or null if whole messages are requested.
+     */
+    @Nullable
+    final List<String> fields;
+    /**
+     * Custom payload values to match or null if custom payload is not filtered.
+     */
+    @Nullable
+    final JSONObject customPayload;
+
+    private MessageQuery(@NonNull String selection, @NonNull String[] selectionArgs, @NonNull String orderBy,
+                         int limit, int offset, @Nullable List<String> fields, @Nullable JSONObject customPayload) {
+        this.selection = selection;
+        this.selectionArgs = selectionArgs;
+        this.orderBy = orderBy;
+        this.limit = limit;
+        this.offset = offset;
+        this.fields = fields;
+        this.customPayload = customPayload;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the query refers to unknown sort field or order
+     */
+    @NonNull
+    static MessageQuery fromJSON(@Nullable JSONObject json) throws JSONException {
+        if (json == null) {
+            json = new JSONObject();
+        }
+
+        List<String> conditions = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        JSONObject customPayload = null;
+        JSONObject filter = json.optJSONObject("filter");
+        if (filter != null) {
+            if (filter.has("seen") && !filter.isNull("seen")) {
+                conditions.add(COLUMN_SEEN_TIMESTAMP + (filter.getBoolean("seen") ? " > 0" : " = 0"));
+            }
+            addIn(conditions, args, COLUMN_CATEGORY, filter.opt("category"));
+            addIn(conditions, args, COLUMN_ID, filter.opt("messageIds"));
+            if (filter.has("sentAfter") && !filter.isNull("sentAfter")) {
+                conditions.add(COLUMN_SENT_TIMESTAMP + " >= ?");
+                args.add(String.valueOf(filter.getLong("sentAfter")));
+            }
+            if (filter.has("sentBefore") && !filter.isNull("sentBefore")) {
+                conditions.add(COLUMN_SENT_TIMESTAMP + " < ?");
+                args.add(String.valueOf(filter.getLong("sentBefore")));
+            }
+            customPayload = filter.optJSONObject("customPayload");
+            if (customPayload != null && customPayload.length() == 0) {
+                customPayload = null;
+            }
+        }
+
+        StringBuilder selection = new StringBuilder();
+        for (String condition : conditions) {
+            selection.append(selection.length() == 0 ? "(" : " AND (").append(condition).append(')');
+        }
+
+        List<String> fields = null;
+        JSONArray fieldsJson = json.optJSONArray("fields");
+        if (fieldsJson != null && fieldsJson.length() > 0) {
+            fields = new ArrayList<>();
+            for (int i = 0; i < fieldsJson.length(); i++) {
+                fields.add(fieldsJson.getString(i));
+            }
+        }
+
+        int limit = json.optInt("limit", 0);
+        limit = limit > 0 ? Math.min(limit, MAX_LIMIT) : MAX_LIMIT;
+        int offset = Math.max(0, json.optInt("offset", 0));
+
+        return new MessageQuery(selection.toString(), args.toArray(new String[args.size()]), orderBy(json.optJSONObject("sort")),
+                limit, offset, fields, customPayload);
+    }
+
+    /**
+     * Whether all requested fields are stored in columns, so the stored payload does not need to be read.
+     */
+    boolean isProjectionFromColumns() {
+        if (fields == null || customPayload != null) {
+            return false;
+        }
+        for (String field : fields) {
+            if (!COLUMNS_BY_FIELD.containsKey(field)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Columns to read for a projection from columns, in the order of requested fields.
+     */
+    @NonNull
+    String[] projectionColumns() {
+        String[] columns = new String[fields.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = COLUMNS_BY_FIELD.get(fields.get(i));
+        }
+        return columns;
+    }
+
+    /**
+     * Whether the stored message JSON matches the custom payload filter.
+     */
+    boolean matchesCustomPayload(@NonNull JSONObject message) {
+        if (customPayload == null) {
+            return true;
+        }
+        JSONObject payload = message.optJSONObject("customPayload");
+        if (payload == null) {
+            return false;
+        }
+        Iterator<String> keys = customPayload.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object expected = customPayload.opt(key);
+            Object actual = payload.opt(key);
+            if (actual == null || !String.valueOf(expected).equals(String.valueOf(actual))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keeps only the requested fields of the message.
+     */
+    @NonNull
+    JSONObject project(@NonNull JSONObject message) throws JSONException {
+        return project(message, fields);
+    }
+
+    /**
+     * Keeps only the given fields of the message, returns the message itself if fields are null.
+     */
+    @NonNull
+    static JSONObject project(@NonNull JSONObject message, @Nullable List<String> fields) throws JSONException {
+        if (fields == null) {
+            return message;
+        }
+        JSONObject projected = new JSONObject();
+        for (String field : fields) {
+            projected.putOpt(field, message.opt(field));
+        }
+        return projected;
+    }
+
+    private static String orderBy(@Nullable JSONObject sort) {
+        String field = sort != null ? sort.optString("field", "receivedTimestamp") : "receivedTimestamp";
+        String order = sort != null ? sort.optString("order", "desc").toUpperCase(Locale.US) : "DESC";
+        String column = COLUMNS_BY_FIELD.get(field);
+        if (column == null || COLUMN_BODY.equals(column)) {
+            throw new IllegalArgumentException("Cannot sort by " + field);
+        }
+        if (!"ASC".equals(order) && !"DESC".equals(order)) {
+            throw new IllegalArgumentException("Unknown sort order " + order);
+        }
+        return COLUMN_ID.equals(column) ? column + " " + order : column + " " + order + ", " + COLUMN_ID + " " + order;
+    }
+
+    private static void addIn(List<String> conditions, List<String> args, String column, @Nullable Object value) throws JSONException {
+        if (value == null || value == JSONObject.NULL) {
+            return;
+        }
+        if (!(value instanceof JSONArray)) {
+            conditions.add(column + " = ?");
+            args.add(String.valueOf(value));
+            return;
+        }
+        JSONArray values = (JSONArray) value;
+        if (values.length() > MAX_VALUES) {
+            throw new IllegalArgumentException("Cannot filter by more than " + MAX_VALUES + " values");
+        }
+        if (values.length() == 0) {
+            conditions.add("0");
+            return;
+        }
+        conditions.add(column + " IN (" + CordovaMessageStore.placeholders(values.length()) + ")");
+        for (int i = 0; i < values.length(); i++) {
+            args.add(values.getString(i));
+        }
+    }
+}
@@ -0,0 +1,241 @@
+//
+//  MessageSearchIndex.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteStatement;
+import android.preference.PreferenceManager;
+
+import org.json.JSONObject;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import static org.apache.cordova.plugin.CordovaMessageStore.TABLE_MESSAGES;
+
+/**
+ * Full-text index over title, body and selected custom payload values of messages in the default message storage.
+ * <p>
+ * The index is an FTS4 table whose docid is the rowid of the message row. Rows are added when messages are saved
+ * and removed by a trigger when messages are deleted, so the index never needs to be rebuilt from JS.
+ * Results are ranked by term frequency weighted per column, with title matches counting more than body matches.
+ */
+class MessageSearchIndex {
+
+    private static final String TAG = "MessageSearchIndex";
+    static final String TABLE_SEARCH = TABLE_MESSAGES + "_search";
+    private static final String COLUMN_TITLE = "title";
+    private static final String COLUMN_BODY = "body";
+    private static final String COLUMN_CUSTOM_PAYLOAD = "custom_payload";
+    private static final String SEARCHABLE_KEYS_KEY = "org.apache.cordova.plugin.MessageSearchIndex.searchableKeys";
+    private static final double[] COLUMN_WEIGHTS = {2.0, 1.0, 1.0};
+
+    static final int MAX_RESULTS = 500;
+
+    private static final String SQL_INSERT = "INSERT INTO " + TABLE_SEARCH + " (docid, "
+            + COLUMN_TITLE + ", " + COLUMN_BODY + ", " + COLUMN_CUSTOM_PAYLOAD + ") VALUES (?, ?, ?, ?)";
+
+    @Nullable
+    private static volatile Set<String> searchableKeys;
+
+    private static class Hit {
+        final long rowId;
+        final double score;
+
+        Hit(long rowId, double score) {
+            this.rowId = rowId;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Stores custom payload keys whose values are indexed, so that they also apply to messages saved while the plugin is not initialized.
+     * Messages which are already indexed keep their indexed values.
+     */
+    static void configure(@NonNull Context context, @Nullable List<String> keys) {
+        Set<String> keySet = keys != null ? new HashSet<>(keys) : Collections.<String>emptySet();
+        PreferenceManager.getDefaultSharedPreferences(context).edit()
+                .putStringSet(SEARCHABLE_KEYS_KEY, keySet)
+                .apply();
+        searchableKeys = keySet;
+    }
+
+    static void create(SQLiteDatabase db) {
+        String columns = COLUMN_TITLE + ", " + COLUMN_BODY + ", " + COLUMN_CUSTOM_PAYLOAD + ", prefix=\"2,3\"";
+        try {
+            db.execSQL("CREATE VIRTUAL TABLE " + TABLE_SEARCH + " USING fts4(" + columns + ", tokenize=unicode61)");
+        } catch (SQLiteException e) {
+            CordovaLogger.w(TAG, "unicode61 tokenizer is not available, using the simple tokenizer");
+            db.execSQL("CREATE VIRTUAL TABLE " + TABLE_SEARCH + " USING fts4(" + columns + ")");
+        }
+        db.execSQL("CREATE TRIGGER " + TABLE_SEARCH + "_delete AFTER DELETE ON " + TABLE_MESSAGES
+                + " BEGIN DELETE FROM " + TABLE_SEARCH + " WHERE docid = old.rowid; END");
+    }
+
+    /**
+     * Merges index segments, which also frees space taken by rows of deleted messages.
+     */
+    static void optimize(SQLiteDatabase db) {
+        db.execSQL("INSERT INTO " + TABLE_SEARCH + " (" + TABLE_SEARCH + ") VALUES ('optimize')");
+    }
+
+    static SQLiteStatement compileInsert(SQLiteDatabase db) {
+        return db.compileStatement(SQL_INSERT);
+    }
+
+    /**
+     * Adds a saved message to the index, the previous version of the message is expected to be already deleted.
+     */
+    static void index(SQLiteStatement statement, long rowId, @Nullable String title, @Nullable String body, @Nullable String customPayloadText) {
+        statement.clearBindings();
+        statement.bindLong(1, rowId);
+        bindNullable(statement, 2, title);
+        bindNullable(statement, 3, body);
+        bindNullable(statement, 4, customPayloadText);
+        statement.executeInsert();
+    }
+
+    /**
+     * Concatenates values of searchable keys of the custom payload.
+     */
+    @Nullable
+    static String customPayloadText(@Nullable JSONObject customPayload, @NonNull Set<String> keys) {
+        if (customPayload == null || keys.isEmpty()) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        for (String key : keys) {
+            Object value = customPayload.opt(key);
+            if (value != null && value != JSONObject.NULL) {
+                text.append(text.length() == 0 ? "" : " ").append(value);
+            }
+        }
+        return text.length() == 0 ? null : text.toString();
+    }
+
+    @NonNull
+    static Set<String> searchableKeys(Context context) {
+        Set<String> keys = searchableKeys;
+        if (keys == null) {
+            keys = new HashSet<>(PreferenceManager.getDefaultSharedPreferences(context)
+                    .getStringSet(SEARCHABLE_KEYS_KEY, Collections.<String>emptySet()));
+            searchableKeys = keys;
+        }
+        return keys;
+    }
+
+    /**
+     * Finds messages matching all words of the text, the last word also matches as a prefix.
+     *
+     * @return rowids of matching messages, best match first
+     */
+    @NonNull
+    static List<Long> search(SQLiteDatabase db, @NonNull String text, int limit) {
+        String matchExpression = toMatchExpression(text);
+        if (matchExpression == null) {
+            return Collections.emptyList();
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        Cursor cursor = db.rawQuery("SELECT docid, matchinfo(" + TABLE_SEARCH + ", 'pcx') FROM " + TABLE_SEARCH
+                + " WHERE " + TABLE_SEARCH + " MATCH ?", new String[]{matchExpression});
+        try {
+            while (cursor.moveToNext()) {
+                hits.add(new Hit(cursor.getLong(0), score(cursor.getBlob(1))));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        Collections.sort(hits, new Comparator<Hit>() {
+            @Override
+            public int compare(Hit left, Hit right) {
+                int byScore = Double.compare(right.score, left.score);
+                // newer messages have greater rowids
+                return byScore != 0 ? byScore : Long.compare(right.rowId, left.rowId);
+            }
+        });
+
+        int count = Math.min(hits.size(), Math.max(1, Math.min(limit, MAX_RESULTS)));
+        List<Long> rowIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rowIds.add(hits.get(i).rowId);
+        }
+        return rowIds;
+    }
+
+    /**
+     * Quotes each word of the user input so that FTS query syntax in the input is not interpreted.
+     */
+    @Nullable
+    static String toMatchExpression(@NonNull String text) {
+        List<String> words = new ArrayList<>(Arrays.asList(text.replace('"', ' ').trim().split("\\s+")));
+        words.removeAll(Collections.singleton(""));
+        if (words.isEmpty()) {
+            return null;
+        }
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < words.size(); i++) {
+            if (i > 0) {
+                expression.append(' ');
+            }
+            expression.append('"').append(words.get(i));
+            if (i == words.size() - 1) {
+                // prefix marker has to be inside the quotes, FTS ignores it after the closing one
+                expression.append('*');
+            }
+            expression.append('"');
+        }
+        return expression.toString();
+    }
+
+    /**
+     * Sums phrase hits in the row relative to hits in all rows, per column weight.
+     * The blob holds the number of phrases, the number of columns and three counters for each phrase and column.
+     */
+    private static double score(byte[] matchInfo) {
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int offset = 8 + 12 * (phrase * columns + column);
+                int hitsInRow = buffer.getInt(offset);
+                int hitsInAllRows = buffer.getInt(offset + 4);
+                if (hitsInRow > 0 && hitsInAllRows > 0) {
+                    double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                    score += weight * hitsInRow / hitsInAllRows;
+                }
+            }
+        }
+        return score;
+    }
+
+    private static void bindNullable(SQLiteStatement statement, int index, @Nullable String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+//
+//  MessageStoreCache.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import org.infobip.mobile.messaging.Message;
+import org.infobip.mobile.messaging.plugins.MessageJson;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Native mirror of the custom JS message storage, so that the SDK can read stored messages without waiting for the JS thread.
+ * <p>
+ * Messages are written through on save. The cache answers reads only while it is complete, that is after it was filled
+ * with the full content of the JS storage and nothing was evicted or invalidated since. Otherwise reads go to JS
+ * and the result fills the cache again. Messages are evicted oldest saved first once their total JSON size exceeds the limit.
+ */
+class MessageStoreCache {
+
+    private static final String TAG = "MessageStoreCache";
+    static final int DEFAULT_MAX_SIZE_KB = 1024;
+
+    private static class Entry {
+        final Message message;
+        final int size;
+
+        Entry(Message message, int size) {
+            this.message = message;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Read of the full JS storage in progress, with messages saved meanwhile, which might be missing in what JS returns.
+     */
+    static class Fill {
+        private final List<Message> savedDuringFill = new ArrayList<>();
+
+        private Fill() {
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final long maxSize;
+    private long size;
+    private boolean complete;
+    private final List<Fill> fills = new ArrayList<>();
+
+    MessageStoreCache(int maxSizeKb) {
+        this.maxSize = Math.max(1, maxSizeKb) * 1024L;
+    }
+
+    /**
+     * Adds saved messages, replacing the stored ones with the same id.
+     */
+    synchronized void put(@NonNull Message... messages) {
+        for (Message message : messages) {
+            if (message != null && message.getMessageId() != null) {
+                add(message);
+                for (Fill fill : fills) {
+                    fill.savedDuringFill.add(message);
+                }
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Called before JS is asked for the full content of its storage,
+     * the returned fill has to be finished with {@link #fill(Fill, Collection)} or {@link #cancelFill(Fill)}.
+     */
+    @NonNull
+    synchronized Fill startFill() {
+        Fill fill = new Fill();
+        fills.add(fill);
+        return fill;
+    }
+
+    /**
+     * Stops collecting saved messages for a read of the JS storage which did not complete.
+     */
+    synchronized void cancelFill(@NonNull Fill fill) {
+        fills.remove(fill);
+    }
+
+    /**
+     * Replaces the content with the full content of the JS storage, keeping messages saved since {@link #startFill()}.
+     * The content is ignored if the cache was invalidated in the meantime.
+     */
+    synchronized void fill(@NonNull Fill fill, @NonNull Collection<Message> messages) {
+        if (!fills.remove(fill)) {
+            return;
+        }
+        List<Message> saved = fill.savedDuringFill;
+        entries.clear();
+        size = 0;
+        complete = true;
+        for (Message message : messages) {
+            if (message != null && message.getMessageId() != null) {
+                add(message);
+            }
+        }
+        for (Message message : saved) {
+            add(message);
+        }
+        evict();
+    }
+
+    /**
+     * @return all messages in the order they were saved, or null if the cache does not mirror the whole JS storage
+     */
+    @Nullable
+    synchronized List<Message> findAll() {
+        if (!complete) {
+            return null;
+        }
+        List<Message> messages = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            messages.add(entry.message);
+        }
+        return messages;
+    }
+
+    /**
+     * @return number of messages or -1 if the cache does not mirror the whole JS storage
+     */
+    synchronized long count() {
+        return complete ? entries.size() : -1;
+    }
+
+    /**
+     * Removes the given messages, which JS has deleted from its storage.
+     */
+    synchronized void remove(@NonNull Collection<String> messageIds) {
+        for (String messageId : messageIds) {
+            Entry entry = entries.remove(messageId);
+            if (entry != null) {
+                size -= entry.size;
+            }
+        }
+    }
+
+    /**
+     * Drops everything, the next read goes to JS.
+     */
+    synchronized void invalidate() {
+        entries.clear();
+        size = 0;
+        complete = false;
+        fills.clear();
+        CordovaLogger.d(TAG, "Invalidated");
+    }
+
+    private void add(Message message) {
+        JSONObject json = MessageJson.toJSON(message);
+        Entry entry = new Entry(message, json != null ? json.toString().length() : 0);
+        Entry previous = entries.remove(message.getMessageId());
+        if (previous != null) {
+            size -= previous.size;
+        }
+        entries.put(message.getMessageId(), entry);
+        size += entry.size;
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            size -= iterator.next().size;
+            iterator.remove();
+            complete = false;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+//
+//  MessageStoreCompactor.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.SystemClock;
+import android.preference.PreferenceManager;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import static org.apache.cordova.plugin.CordovaMessageStore.COLUMN_ID;
+import static org.apache.cordova.plugin.CordovaMessageStore.COLUMN_PAYLOAD;
+import static org.apache.cordova.plugin.CordovaMessageStore.COLUMN_SENT_TIMESTAMP;
+import static org.apache.cordova.plugin.CordovaMessageStore.TABLE_MESSAGES;
+
+/**
+ * Enforces the retention policy of the default message storage: messages older than the maximum age are deleted first,
+ * then the oldest messages until both the count and the size limits are met.
+ * <p>
+ * Messages are deleted in batches, each in its own transaction, so that saving new messages is not blocked for long.
+ * Freed database pages are returned to the file system afterwards.
+ * Compaction runs on the storage lane when the plugin is initialized and, at most once per interval, after messages are saved.
+ */
+class MessageStoreCompactor {
+
+    private static final String TAG = "MessageStoreCompactor";
+    private static final String RETENTION_KEY = "org.apache.cordova.plugin.MessageStoreCompactor.retention";
+    private static final int BATCH_SIZE = 500;
+    private static final long MIN_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private static final String SQL_DELETE_OLDEST = "DELETE FROM " + TABLE_MESSAGES + " WHERE rowid IN (SELECT rowid FROM "
+            + TABLE_MESSAGES + " ORDER BY " + COLUMN_SENT_TIMESTAMP + " ASC, " + COLUMN_ID + " ASC LIMIT ?)";
+    private static final String SQL_DELETE_SENT_BEFORE = "DELETE FROM " + TABLE_MESSAGES + " WHERE rowid IN (SELECT rowid FROM "
+            + TABLE_MESSAGES + " WHERE " + COLUMN_SENT_TIMESTAMP + " < ? LIMIT " + BATCH_SIZE + ")";
+
+    @Nullable
+    private static volatile RetentionPolicy retentionPolicy;
+    private static final AtomicBoolean scheduled = new AtomicBoolean();
+    private static volatile long lastRunElapsedMillis = -MIN_INTERVAL_MILLIS;
+
+    /**
+     * Limits of the default message storage, zero means no limit.
+     */
+    static class RetentionPolicy {
+
+        static final RetentionPolicy UNLIMITED = new RetentionPolicy(0, 0, 0);
+
+        final int maxCount;
+        final long maxAgeMillis;
+        final long maxBytes;
+
+        RetentionPolicy(int maxCount, long maxAgeMillis, long maxBytes) {
+            this.maxCount = Math.max(0, maxCount);
+            this.maxAgeMillis = Math.max(0, maxAgeMillis);
+            this.maxBytes = Math.max(0, maxBytes);
+        }
+
+        boolean isUnlimited() {
+            return maxCount == 0 && maxAgeMillis == 0 && maxBytes == 0;
+        }
+
+        JSONObject toJSON() throws JSONException {
+            return new JSONObject()
+                    .put("maxCount", maxCount)
+                    .put("maxAgeMillis", maxAgeMillis)
+                    .put("maxBytes", maxBytes);
+        }
+
+        static RetentionPolicy fromJSON(@Nullable JSONObject json) {
+            if (json == null) {
+                return UNLIMITED;
+            }
+            return new RetentionPolicy(json.optInt("maxCount"), json.optLong("maxAgeMillis"), json.optLong("maxBytes"));
+        }
+    }
+
+    /**
+     * What a compaction run removed.
+     */
+    static class Report {
+        final int deletedMessages;
+        final long reclaimedBytes;
+
+        Report(int deletedMessages, long reclaimedBytes) {
+            this.deletedMessages = deletedMessages;
+            this.reclaimedBytes = reclaimedBytes;
+        }
+
+        JSONObject toJSON() throws JSONException {
+            return new JSONObject()
+                    .put("deletedMessages", deletedMessages)
+                    .put("reclaimedBytes", reclaimedBytes);
+        }
+    }
+
+    /**
+     * Stores the policy, so that it is also enforced when messages are saved while the plugin is not initialized.
+     */
+    static void configure(@NonNull Context context, @NonNull RetentionPolicy policy) {
+        String json;
+        try {
+            json = policy.toJSON().toString();
+        } catch (JSONException e) {
+            CordovaLogger.e(TAG, "Cannot store retention policy", e);
+            return;
+        }
+        PreferenceManager.getDefaultSharedPreferences(context).edit()
+                .putString(RETENTION_KEY, json)
+                .apply();
+        retentionPolicy = policy;
+    }
+
+    @NonNull
+    static RetentionPolicy retentionPolicy(@NonNull Context context) {
+        RetentionPolicy policy = retentionPolicy;
+        if (policy == null) {
+            String json = PreferenceManager.getDefaultSharedPreferences(context).getString(RETENTION_KEY, null);
+            try {
+                policy = json != null ? RetentionPolicy.fromJSON(new JSONObject(json)) : RetentionPolicy.UNLIMITED;
+            } catch (JSONException e) {
+                CordovaLogger.w(TAG, "Cannot read retention policy: " + e.getMessage());
+                policy = RetentionPolicy.UNLIMITED;
+            }
+            retentionPolicy = policy;
+        }
+        return policy;
+    }
+
+    /**
+     * Schedules compaction on the storage lane unless it is already scheduled or ran recently.
+     */
+    static void scheduleIfDue(@NonNull final Context context) {
+        if (SystemClock.elapsedRealtime() - lastRunElapsedMillis < MIN_INTERVAL_MILLIS) {
+            return;
+        }
+        schedule(context);
+    }
+
+    static void schedule(@NonNull final Context context) {
+        if (retentionPolicy(context).isUnlimited() || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        PluginScheduler.getInstance().execute(PluginScheduler.Lane.STORAGE, new Runnable() {
+            @Override
+            public void run() {
+                scheduled.set(false);
+                try {
+                    compact(context);
+                } catch (Exception e) {
+                    CordovaLogger.e(TAG, "Message storage compaction failed", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Deletes messages which exceed the retention policy and reclaims the freed space.
+     * Must not be called on the main thread.
+     */
+    @NonNull
+    static Report compact(@NonNull Context context) {
+        lastRunElapsedMillis = SystemClock.elapsedRealtime();
+        RetentionPolicy policy = retentionPolicy(context);
+        SQLiteDatabase db = CordovaMessageStore.database(context);
+        long sizeBefore = databaseSize(db);
+
+        int deleted = 0;
+        if (policy.maxAgeMillis > 0) {
+            deleted += deleteSentBefore(db, System.currentTimeMillis() - policy.maxAgeMillis);
+        }
+        if (policy.maxCount > 0) {
+            long excess = DatabaseUtils.queryNumEntries(db, TABLE_MESSAGES) - policy.maxCount;
+            if (excess > 0) {
+                deleted += deleteOldest(db, excess);
+            }
+        }
+        if (policy.maxBytes > 0) {
+            deleted += deleteOverSize(db, policy.maxBytes);
+        }
+
+        long reclaimed = 0;
+        if (deleted > 0) {
+            reclaimSpace(db);
+            reclaimed = Math.max(0, sizeBefore - databaseSize(db));
+        }
+        Report report = new Report(deleted, reclaimed);
+        CordovaLogger.d(TAG, "Deleted " + report.deletedMessages + " messages, reclaimed " + report.reclaimedBytes + " bytes");
+        return report;
+    }
+
+    private static int deleteSentBefore(SQLiteDatabase db, long sentBeforeMillis) {
+        int total = 0;
+        SQLiteStatement statement = db.compileStatement(SQL_DELETE_SENT_BEFORE);
+        try {
+            int deleted;
+            do {
+                statement.bindLong(1, sentBeforeMillis);
+                deleted = executeInTransaction(db, statement);
+                total += deleted;
+            } while (deleted == BATCH_SIZE);
+        } finally {
+            statement.close();
+        }
+        return total;
+    }
+
+    private static int deleteOldest(SQLiteDatabase db, long count) {
+        int total = 0;
+        SQLiteStatement statement = db.compileStatement(SQL_DELETE_OLDEST);
+        try {
+            while (total < count) {
+                statement.bindLong(1, Math.min(BATCH_SIZE, count - total));
+                int deleted = executeInTransaction(db, statement);
+                if (deleted == 0) {
+                    break;
+                }
+                total += deleted;
+            }
+        } finally {
+            statement.close();
+        }
+        return total;
+    }
+
+    /**
+     * Deletes the oldest messages until the size of stored message payloads fits into the limit.
+     */
+    private static int deleteOverSize(SQLiteDatabase db, long maxBytes) {
+        long excess = DatabaseUtils.longForQuery(db, "SELECT IFNULL(SUM(LENGTH(CAST(" + COLUMN_PAYLOAD + " AS BLOB))), 0) FROM "
+                + TABLE_MESSAGES, null) - maxBytes;
+        int total = 0;
+        while (excess > 0) {
+            List<String> rowIds = new ArrayList<>();
+            Cursor cursor = db.query(TABLE_MESSAGES, new String[]{"rowid", "LENGTH(CAST(" + COLUMN_PAYLOAD + " AS BLOB))"},
+                    null, null, null, null, COLUMN_SENT_TIMESTAMP + " ASC, " + COLUMN_ID + " ASC", String.valueOf(BATCH_SIZE));
+            try {
+                while (excess > 0 && cursor.moveToNext()) {
+                    rowIds.add(cursor.getString(0));
+                    excess -= cursor.getLong(1);
+                }
+            } finally {
+                cursor.close();
+            }
+            if (rowIds.isEmpty()) {
+                break;
+            }
+
+            db.beginTransaction();
+            try {
+                total += db.delete(TABLE_MESSAGES, "rowid IN (" + CordovaMessageStore.placeholders(rowIds.size()) + ")",
+                        rowIds.toArray(new String[rowIds.size()]));
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+        return total;
+    }
+
+    private static int executeInTransaction(SQLiteDatabase db, SQLiteStatement statement) {
+        db.beginTransaction();
+        try {
+            int deleted = statement.executeUpdateDelete();
+            db.setTransactionSuccessful();
+            return deleted;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Merges search index segments and returns free pages to the file system.
+     * Databases created before incremental auto vacuum was enabled are vacuumed once, which also switches them to it.
+     */
+    private static void reclaimSpace(SQLiteDatabase db) {
+        MessageSearchIndex.optimize(db);
+        if (DatabaseUtils.longForQuery(db, "PRAGMA auto_vacuum", null) == AUTO_VACUUM_INCREMENTAL) {
+            drain(db.rawQuery("PRAGMA incremental_vacuum", null));
+        } else {
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            db.execSQL("VACUUM");
+        }
+        drain(db.rawQuery("PRAGMA wal_checkpoint(TRUNCATE)", null));
+    }
+
+    private static long databaseSize(SQLiteDatabase db) {
+        return DatabaseUtils.longForQuery(db, "PRAGMA page_count", null) * DatabaseUtils.longForQuery(db, "PRAGMA page_size", null);
+    }
+
+    private static void drain(Cursor cursor) {
+        try {
+            while (cursor.moveToNext()) {
+                // pragma runs while rows are stepped through
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+}
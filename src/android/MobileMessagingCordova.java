@@ -20,8 +20,8 @@ import android.content.SharedPreferences;
 import android.content.res.Resources;
 import android.content.res.AssetManager;
 import android.graphics.Color;
-import android.os.AsyncTask;
 import android.os.Build;
+import android.os.SystemClock;
 import android.preference.PreferenceManager;
 import android.graphics.drawable.Drawable;
 
@@ -53,6 +53,7 @@ import org.infobip.mobile.messaging.SuccessPending;
 import org.infobip.mobile.messaging.inbox.Inbox;
 import org.infobip.mobile.messaging.inbox.MobileInbox;
 import org.infobip.mobile.messaging.inbox.InboxMapper;
+import org.infobip.mobile.messaging.inbox.InboxMessage;
 import org.infobip.mobile.messaging.inbox.MobileInboxFilterOptions;
 import org.infobip.mobile.messaging.inbox.MobileInboxFilterOptionsJson;
 import org.infobip.mobile.messaging.plugins.InstallationJson;
@@ -75,7 +76,6 @@ import org.infobip.mobile.messaging.mobileapi.MobileMessagingError;
 import org.infobip.mobile.messaging.mobileapi.Result;
 import org.infobip.mobile.messaging.CustomEvent;
 import org.infobip.mobile.messaging.storage.MessageStore;
-import org.infobip.mobile.messaging.storage.SQLiteMessageStore;
 import org.infobip.mobile.messaging.util.Cryptor;
 import org.infobip.mobile.messaging.util.DeviceInformation;
 import org.infobip.mobile.messaging.util.PreferenceHelper;
@@ -96,6 +96,7 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
@@ -103,6 +104,13 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.apache.cordova.plugin.PluginAction.ArgType.*;
+import static org.apache.cordova.plugin.PluginAction.ArgumentSchema.any;
+import static org.apache.cordova.plugin.PluginAction.ArgumentSchema.none;
+import static org.apache.cordova.plugin.PluginAction.ArgumentSchema.of;
+import static org.apache.cordova.plugin.PluginAction.ArgumentSchema.variadic;
+import static org.apache.cordova.plugin.PluginAction.ThreadAffinity.*;
+
 public class MobileMessagingCordova extends CordovaPlugin {
     public static final String TAG = "MobileMessagingCordova";
 
@@ -110,6 +118,18 @@ public class MobileMessagingCordova extends CordovaPlugin {
     private static final int REQ_CODE_RESOLVE_GOOGLE_ERROR = 2;
     private static final int REQ_CODE_POST_NOTIFICATIONS = 3;
 
+    private static final String PREFERENCE_NETWORK_THREADS = "IB_ANDROID_NETWORK_THREADS";
+    private static final String PREFERENCE_STORAGE_THREADS = "IB_ANDROID_STORAGE_THREADS";
+    private static final String PREFERENCE_LIGHT_THREADS = "IB_ANDROID_LIGHT_THREADS";
+    private static final String PREFERENCE_EVENT_BATCH_SIZE = "IB_ANDROID_EVENT_BATCH_SIZE";
+    private static final String PREFERENCE_EVENT_BATCH_DELAY_MS = "IB_ANDROID_EVENT_BATCH_DELAY_MS";
+    private static final String PREFERENCE_EVENT_JOURNAL_SIZE_KB = "IB_ANDROID_EVENT_JOURNAL_SIZE_KB";
+    private static final String PREFERENCE_EVENT_JOURNAL_OVERFLOW = "IB_ANDROID_EVENT_JOURNAL_OVERFLOW";
+    private static final String PREFERENCE_SEEN_BATCH_SIZE = "IB_ANDROID_SEEN_BATCH_SIZE";
+    private static final String PREFERENCE_SEEN_BATCH_DELAY_MS = "IB_ANDROID_SEEN_BATCH_DELAY_MS";
+    private static final String PREFERENCE_CUSTOM_EVENT_BATCH_SIZE = "IB_ANDROID_CUSTOM_EVENT_BATCH_SIZE";
+    private static final String PREFERENCE_CUSTOM_EVENT_BATCH_DELAY_MS = "IB_ANDROID_CUSTOM_EVENT_BATCH_DELAY_MS";
+
     private static final String FUNCTION_INIT = "init";
     private static final String FUNCTION_REGISTER_RECEIVER = "registerReceiver";
     private static final String FUNCTION_SAVE_USER = "saveUser";
@@ -127,23 +147,50 @@ public class MobileMessagingCordova extends CordovaPlugin {
     private static final String FUNCTION_MARK_MESSAGES_SEEN = "markMessagesSeen";
     private static final String FUNCTION_MESSAGESTORAGE_REGISTER = "messageStorage_register";
     private static final String FUNCTION_MESSAGESTORAGE_UNREGISTER = "messageStorage_unregister";
-    private static final String FUNCTION_MESSAGESTORAGE_FINDALL_RESULT = "messageStorage_findAllResult";
+    private static final String FUNCTION_MESSAGESTORAGE_INVALIDATE_CACHE = "messageStorage_invalidateCache";
+    private static final String FUNCTION_MESSAGESTORAGE_RESULT = "messageStorage_result";
     private static final String FUNCTION_DEF_MESSAGESTORAGE_FIND = "defaultMessageStorage_find";
     private static final String FUNCTION_DEF_MESSAGESTORAGE_FINDALL = "defaultMessageStorage_findAll";
     private static final String FUNCTION_DEF_MESSAGESTORAGE_DELETE = "defaultMessageStorage_delete";
     private static final String FUNCTION_DEF_MESSAGESTORAGE_DELETEALL = "defaultMessageStorage_deleteAll";
+    private static final String FUNCTION_DEF_MESSAGESTORAGE_DELETE_MESSAGES = "defaultMessageStorage_deleteMessages";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int INBOX_SYNC_DELTA_LIMIT = 100;
+    /**
+     * Number of inbox messages the server returns when filter options have no limit.
+     */
+    private static final int DEFAULT_INBOX_LIMIT = 20;
+    private static final int MAX_INBOX_PAGE_SIZE = 500;
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+    private static final String FUNCTION_DEF_MESSAGESTORAGE_FIND_PAGE = "defaultMessageStorage_findPage";
+    private static final String FUNCTION_DEF_MESSAGESTORAGE_FINDALL_STREAM = "defaultMessageStorage_findAllStream";
+    private static final String FUNCTION_DEF_MESSAGESTORAGE_QUERY = "defaultMessageStorage_query";
+    private static final String FUNCTION_DEF_MESSAGESTORAGE_SEARCH = "defaultMessageStorage_search";
+    private static final String FUNCTION_DEF_MESSAGESTORAGE_COMPACT = "defaultMessageStorage_compact";
 
     private static final String FUNCTION_SUBMIT_EVENT_IMMEDIATELY = "submitEventImmediately";
     private static final String FUNCTION_SUBMIT_EVENT = "submitEvent";
 
     private static final String FUNCTION_REGISTER_FOR_POST_NOTIFICATIONS = "registerForAndroidRemoteNotifications";
     private static final String FUNCTION_ENABLE_PLATFORM_NATIVE_LOGGING = "enablePlatformNativeLogging";
+    private static final String FUNCTION_SET_PLATFORM_NATIVE_LOG_FILTER = "setPlatformNativeLogFilter";
+    private static final String FUNCTION_ENABLE_PLATFORM_NATIVE_FILE_LOGGING = "enablePlatformNativeFileLogging";
+    private static final String FUNCTION_DISABLE_PLATFORM_NATIVE_FILE_LOGGING = "disablePlatformNativeFileLogging";
+    private static final String FUNCTION_EXPORT_PLATFORM_NATIVE_LOGS = "exportPlatformNativeLogs";
 
     private static final String FUNCTION_MOBILE_FETCH_INBOX = "fetchInboxMessages";
     private static final String FUNCTION_MOBILE_FETCH_INBOX_WITHOUT_TOKEN = "fetchInboxMessagesWithoutToken";
+    private static final String FUNCTION_MOBILE_SYNC_INBOX = "syncInboxMessages";
+    private static final String FUNCTION_MOBILE_QUERY_INBOX = "queryInboxMessages";
     private static final String FUNCTION_MOBILE_INBOX_SET_SEEN = "setInboxMessagesSeen";
     private static final String FUNCTION_SET_USER_DATA_JWT = "setUserDataJwt";
     private static final String FUNCTION_CLEANUP = "cleanup";
+    private static final String FUNCTION_GET_ACTION_METRICS = "getActionMetrics";
+    private static final String FUNCTION_RESET_ACTION_METRICS = "resetActionMetrics";
+    private static final String FUNCTION_GET_SCHEDULER_STATS = "getSchedulerStats";
+    private static final String FUNCTION_FLUSH_EVENTS = "flushEvents";
+    private static final String FUNCTION_GET_EVENT_BUFFER_STATS = "getEventBufferStats";
+    private static final String FUNCTION_BATCH = "batch";
 
     public static final String EVENT_KEY_ID = "internalEventId";
     private static final String EVENT_TOKEN_RECEIVED = "tokenReceived";
@@ -160,6 +207,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
     private static final String EVENT_MESSAGESTORAGE_START = "messageStorage.start";
     private static final String EVENT_MESSAGESTORAGE_SAVE = "messageStorage.save";
     private static final String EVENT_MESSAGESTORAGE_FIND_ALL = "messageStorage.findAll";
+    private static final String EVENT_MESSAGESTORAGE_COUNT = "messageStorage.count";
 
     public static final String EVENT_PLATFORM_NATIVE_LOGS_SENT = "internal.platformNativeLogSent";
 
@@ -177,6 +225,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
 
     private static final String EVENT_INAPP_CHAT_UNREAD_MESSAGE_COUNTER_UPDATED = "inAppChat.unreadMessageCounterUpdated";
     private static final String EVENT_INAPP_CHAT_AVAILABILITY_UPDATED = "inAppChat.availabilityUpdated";
+    private static final String EVENT_INBOX_UPDATED = "inbox.updated";
     private static final String EVENT_INAPP_CHAT_REQUEST_JWT = "inAppChat.internal.jwtRequested";
     private static final String EVENT_INAPP_CHAT_EXCEPTION_RECEIVED = "inAppChat.internal.exceptionReceived";
 
@@ -203,11 +252,25 @@ public class MobileMessagingCordova extends CordovaPlugin {
     }};
 
     private static volatile CallbackContext libraryEventReceiver = null;
+    @Nullable
+    private static volatile InboxCache inboxCache;
+    private static final EventDispatcher eventDispatcher = new EventDispatcher(
+            EVENT_INSTALLATION_UPDATED,
+            EVENT_USER_UPDATED,
+            EVENT_INAPP_CHAT_UNREAD_MESSAGE_COUNTER_UPDATED,
+            EVENT_INAPP_CHAT_AVAILABILITY_UPDATED);
 
     private final CordovaCallContext initContext = new CordovaCallContext();
     private final CordovaCallContext showErrorDialogContext = new CordovaCallContext();
     private static CallbackContext registerForAndroidPermissionContext;
     private final ChatJwtCallbackHolder chatJwtCallbackHolder = new ChatJwtCallbackHolder();
+    private final ActionMetrics actionMetrics = new ActionMetrics();
+    private final CustomEventBuffer customEventBuffer = new CustomEventBuffer(this::submitCustomEvents);
+    /**
+     * Whether large payloads are sent to JS as binary frames, see {@link BinaryPayloadEncoder}.
+     */
+    private volatile boolean binaryPayloads;
+    private final Map<String, PluginAction> actions = registerActions();
 
     private static final BroadcastReceiver commonLibraryBroadcastReceiver = new BroadcastReceiver() {
         @Override
@@ -242,6 +305,10 @@ public class MobileMessagingCordova extends CordovaPlugin {
                 return;
             }
 
+            if (Event.DEPERSONALIZED.getKey().equals(intent.getAction())) {
+                invalidateInboxCache(context);
+            }
+
             Object data = null;
             if (Event.TOKEN_RECEIVED.getKey().equals(intent.getAction())) {
                 data = intent.getStringExtra(BroadcastParameter.EXTRA_CLOUD_TOKEN);
@@ -296,12 +363,48 @@ public class MobileMessagingCordova extends CordovaPlugin {
             List<Action> actions;
         }
 
+        class Retention {
+            int maxCount;
+            int maxAgeDays;
+            int maxSizeKb;
+        }
+
+        class MessageStorageOptions {
+            boolean nativeCacheEnabled;
+            int nativeCacheMaxSizeKb = MessageStoreCache.DEFAULT_MAX_SIZE_KB;
+            long requestTimeoutMs = StorageRequests.DEFAULT_TIMEOUT_MS;
+        }
+
+        class BridgeOptions {
+            boolean binaryPayloads;
+        }
+
+        class CustomEventOptions {
+            List<String> coalescedDefinitionIds;
+        }
+
+        class InboxOptions {
+            boolean nativeCacheEnabled;
+            long nativeCacheTtlSeconds = InboxCache.DEFAULT_TTL_SECONDS;
+            int nativeCacheMaxSizeKb = InboxCache.DEFAULT_MAX_SIZE_KB;
+        }
+
+        class DefaultMessageStorageOptions {
+            List<String> searchableCustomPayloadKeys;
+            Retention retention;
+        }
+
         AndroidConfiguration android;
         String applicationCode;
         boolean inAppChatEnabled;
         boolean fullFeaturedInAppsEnabled;
         Map<String, ?> messageStorage;
+        MessageStorageOptions messageStorageOptions;
         boolean defaultMessageStorage;
+        DefaultMessageStorageOptions defaultMessageStorageOptions;
+        BridgeOptions bridgeOptions;
+        InboxOptions inboxOptions;
+        CustomEventOptions customEventOptions;
         boolean loggingEnabled;
         String cordovaPluginVersion = "unknown";
         PrivacySettings privacySettings = new PrivacySettings();
@@ -344,6 +447,30 @@ public class MobileMessagingCordova extends CordovaPlugin {
         }
     }
 
+    @Override
+    protected void pluginInitialize() {
+        PluginScheduler.configure(
+                preferences.getInteger(PREFERENCE_NETWORK_THREADS, PluginScheduler.DEFAULT_NETWORK_THREADS),
+                preferences.getInteger(PREFERENCE_STORAGE_THREADS, PluginScheduler.DEFAULT_STORAGE_THREADS),
+                preferences.getInteger(PREFERENCE_LIGHT_THREADS, PluginScheduler.DEFAULT_LIGHT_THREADS));
+        eventDispatcher.resume();
+        eventDispatcher.configure(
+                preferences.getInteger(PREFERENCE_EVENT_BATCH_SIZE, EventDispatcher.DEFAULT_MAX_BATCH_SIZE),
+                preferences.getInteger(PREFERENCE_EVENT_BATCH_DELAY_MS, EventDispatcher.DEFAULT_MAX_DELAY_MILLIS));
+        CacheManager.configure(
+                cordova.getActivity(),
+                preferences.getInteger(PREFERENCE_EVENT_JOURNAL_SIZE_KB, CacheManager.DEFAULT_JOURNAL_SIZE_KB),
+                preferences.getString(PREFERENCE_EVENT_JOURNAL_OVERFLOW, CacheManager.DEFAULT_JOURNAL_OVERFLOW));
+        SeenQueue.configure(
+                preferences.getInteger(PREFERENCE_SEEN_BATCH_SIZE, SeenQueue.DEFAULT_MAX_BATCH_SIZE),
+                preferences.getInteger(PREFERENCE_SEEN_BATCH_DELAY_MS, SeenQueue.DEFAULT_MAX_DELAY_MILLIS));
+        customEventBuffer.configure(
+                preferences.getInteger(PREFERENCE_CUSTOM_EVENT_BATCH_SIZE, CustomEventBuffer.DEFAULT_MAX_BATCH_SIZE),
+                preferences.getInteger(PREFERENCE_CUSTOM_EVENT_BATCH_DELAY_MS, CustomEventBuffer.DEFAULT_MAX_DELAY_MILLIS));
+        SeenQueue.setInboxListener(inboxSeenListener(cordova.getActivity().getApplicationContext()));
+        SeenQueue.getInstance(cordova.getActivity());
+    }
+
     @Override
     public void onRequestPermissionResult(int requestCode, String[] permissions, int[] grantResults) throws JSONException {
         if (requestCode == REQ_CODE_POST_NOTIFICATIONS) {
@@ -404,143 +531,248 @@ public class MobileMessagingCordova extends CordovaPlugin {
         sendCallbackSuccess(callbackContext);
     }
 
+    @Override
+    public void onPause(boolean multitasking) {
+        eventDispatcher.pause();
+        customEventBuffer.flush(CustomEventBuffer.FlushReason.BACKGROUND);
+    }
+
+    @Override
+    public void onResume(boolean multitasking) {
+        eventDispatcher.resume();
+    }
+
     @Override
     public void onDestroy() {
+        // dispatcher outlives the activity, a plugin loaded by the next one may never get onResume
+        eventDispatcher.resume();
+        customEventBuffer.flush(CustomEventBuffer.FlushReason.BACKGROUND);
+        MessageStoreAdapter.cancelRequests();
         libraryEventReceiver = null;
         LocalBroadcastManager.getInstance(cordova.getActivity()).unregisterReceiver(commonLibraryBroadcastReceiver);
     }
 
+    @Override
+    public boolean execute(String action, String rawArgs, CallbackContext callbackContext) throws JSONException {
+        PluginAction pluginAction = actions.get(action);
+        if (pluginAction == null) {
+            return false;
+        }
+
+        CordovaLogger.d(TAG, () -> "execute: " + action + " args: " + rawArgs);
+        actionMetrics.recordCall(action, rawArgs != null ? rawArgs.length() : 0);
+        dispatch(pluginAction, new JSONArray(rawArgs), callbackContext);
+        return true;
+    }
+
     @Override
     public boolean execute(String action, JSONArray args, CallbackContext callbackContext) throws JSONException {
+        PluginAction pluginAction = actions.get(action);
+        if (pluginAction == null) {
+            return false;
+        }
 
-        CordovaLogger.d(TAG, "execute: " + action + " args: " + args.toString());
+        actionMetrics.recordCall(action, -1);
+        dispatch(pluginAction, args, callbackContext);
+        return true;
+    }
 
-        if (FUNCTION_INIT.equals(action)) {
-            init(args, callbackContext);
-            return true;
-        } else if (FUNCTION_REGISTER_RECEIVER.equals(action)) {
-            registerReceiver(callbackContext);
-            return true;
-        } else if (FUNCTION_SAVE_USER.equals(action)) {
-            saveUser(args, callbackContext);
-            return true;
-        } else if (FUNCTION_FETCH_USER.equals(action)) {
-            fetchUser(callbackContext);
-            return true;
-        } else if (FUNCTION_GET_USER.equals(action)) {
-            getUser(callbackContext);
-            return true;
-        } else if (FUNCTION_SAVE_INSTALLATION.equals(action)) {
-            saveInstallation(args, callbackContext);
-            return true;
-        } else if (FUNCTION_FETCH_INSTALLATION.equals(action)) {
-            fetchInstallation(callbackContext);
-            return true;
-        } else if (FUNCTION_GET_INSTALLATION.equals(action)) {
-            getInstallation(callbackContext);
-            return true;
-        } else if (FUNCTION_PERSONALIZE.equals(action)) {
-            personalize(args, callbackContext);
-            return true;
-        } else if (FUNCTION_DEPERSONALIZE.equals(action)) {
-            depersonalize(callbackContext);
-            return true;
-        } else if (FUNCTION_DEPERSONALIZE_INSTALLATION.equals(action)) {
-            depersonalizeInstallation(args, callbackContext);
-            return true;
-        } else if (FUNCTION_SET_INSTALLATION_AS_PRIMARY.equals(action)) {
-            setInstallationAsPrimary(args, callbackContext);
-            return true;
-        } else if (FUNCTION_MARK_MESSAGES_SEEN.equals(action)) {
-            markMessagesSeen(args, callbackContext);
-            return true;
-        } else if (FUNCTION_SHOW_DIALOG_FOR_ERROR.equals(action)) {
-            showDialogForError(args, callbackContext);
-            return true;
-        } else if (FUNCTION_MESSAGESTORAGE_REGISTER.equals(action)) {
-            MessageStoreAdapter.register(cordova.getActivity(), args, callbackContext);
-            return true;
-        } else if (FUNCTION_MESSAGESTORAGE_UNREGISTER.equals(action)) {
-            MessageStoreAdapter.unregister(args);
-            return true;
-        } else if (FUNCTION_MESSAGESTORAGE_FINDALL_RESULT.equals(action)) {
-            MessageStoreAdapter.findAllJSResult(args);
-            return true;
-        } else if (FUNCTION_DEF_MESSAGESTORAGE_FIND.equals(action)) {
-            defaultMessageStorage_find(args, callbackContext);
-            return true;
-        } else if (FUNCTION_DEF_MESSAGESTORAGE_FINDALL.equals(action)) {
-            defaultMessageStorage_findAll(callbackContext);
-            return true;
-        } else if (FUNCTION_DEF_MESSAGESTORAGE_DELETE.equals(action)) {
-            defaultMessageStorage_delete(args, callbackContext);
-            return true;
-        } else if (FUNCTION_DEF_MESSAGESTORAGE_DELETEALL.equals(action)) {
-            defaultMessageStorage_deleteAll(callbackContext);
-            return true;
-        } else if (FUNCTION_SUBMIT_EVENT_IMMEDIATELY.equals(action)) {
-            submitEventImmediately(args, callbackContext);
-            return true;
-        } else if (FUNCTION_SUBMIT_EVENT.equals(action)) {
-            submitEvent(args, callbackContext);
-            return true;
-        } else if (FUNCTION_INAPP_CHAT_SHOW.equals(action)) {
-            showInAppChat(args, callbackContext);
-            return true;
-        } else if (FUNCTION_INAPP_CHAT_GET_MESSAGE_COUNTER.equals(action)) {
-            getMessageCounter(args, callbackContext);
-            return true;
-        } else if (FUNCTION_INAPP_CHAT_IS_AVAILABLE.equals(action)) {
-            isChatAvailable(args, callbackContext);
-            return true;
-        } else if (FUNCTION_INAPP_CHAT_RESET_MESSAGE_COUNTER.equals(action)) {
-            resetMessageCounter(args, callbackContext);
-            return true;
-        } else if (FUNCTION_INAPP_CHAT_SET_LANGUAGE.equals(action)) {
-            setLanguage(args, callbackContext);
-            return true;
-        } else if (FUNCTION_INAPP_CHAT_SEND_CONTEXTUAL_DATA.equals(action)) {
-            sendContextualData(args, callbackContext);
-            return true;
-        } else if (FUNCTION_INAPP_CHAT_SET_JWT_PROVIDER.equals(action)) {
-            setChatJwtProvider(args, callbackContext);
-            return true;
-        } else if (FUNCTION_INAPP_CHAT_SET_JWT.equals(action)) {
-            setChatJwt(args, callbackContext);
-            return true;
-        } else if (FUNCTION_INAPP_CHAT_SET_CUSTOMIZATION.equals(action)) {
-            setChatCustomization(args, callbackContext);
-            return true;
-        } else if (FUNCTION_INAPP_CHAT_SET_EXCEPTION_HANDLER.equals(action)) {
-            setChatExceptionHandler(args, callbackContext);
-            return true;
-        } else if (FUNCTION_INAPP_CHAT_SET_WIDGET_THEME.equals(action)) {
-            setWidgetTheme(args, callbackContext);
-            return true;
-        } else if (FUNCTION_REGISTER_FOR_POST_NOTIFICATIONS.equals(action)) {
-            registerForAndroidRemoteNotifications(args, callbackContext);
-            return true;
-        } else if (FUNCTION_MOBILE_FETCH_INBOX.equals(action)) {
-            fetchInboxMessages(args, callbackContext);
-            return true;
-        } else if (FUNCTION_MOBILE_FETCH_INBOX_WITHOUT_TOKEN.equals(action)) {
-            fetchInboxMessagesWithoutToken(args, callbackContext);
-            return true;
-        } else if (FUNCTION_MOBILE_INBOX_SET_SEEN.equals(action)) {
-            setInboxMessagesSeen(args, callbackContext);
-            return true;
-        } else if (FUNCTION_SET_USER_DATA_JWT.equals(action)) {
-            setJwtSupplier(args, callbackContext);
-            return true;
-        } else if (FUNCTION_CLEANUP.equals(action)) {
-            cleanup(callbackContext);
-            return true;
-        } else if (FUNCTION_ENABLE_PLATFORM_NATIVE_LOGGING.equals(action)) {
-            togglePlatformNativeLogging(true, callbackContext);
-            return true;
+    private Map<String, PluginAction> registerActions() {
+        Map<String, PluginAction> actions = new HashMap<String, PluginAction>();
+        registerAction(actions, FUNCTION_INIT, CALLER, of(OBJECT), this::init);
+        registerAction(actions, FUNCTION_REGISTER_RECEIVER, CALLER, none(), PluginAction.ResultMode.STREAM, (args, callbackContext) -> registerReceiver(callbackContext));
+        registerAction(actions, FUNCTION_SAVE_USER, CALLER, of(OBJECT), this::saveUser);
+        registerAction(actions, FUNCTION_FETCH_USER, CALLER, none(), (args, callbackContext) -> fetchUser(callbackContext));
+        registerAction(actions, FUNCTION_GET_USER, CALLER, none(), (args, callbackContext) -> getUser(callbackContext));
+        registerAction(actions, FUNCTION_SAVE_INSTALLATION, CALLER, of(OBJECT), this::saveInstallation);
+        registerAction(actions, FUNCTION_FETCH_INSTALLATION, CALLER, none(), (args, callbackContext) -> fetchInstallation(callbackContext));
+        registerAction(actions, FUNCTION_GET_INSTALLATION, CALLER, none(), (args, callbackContext) -> getInstallation(callbackContext));
+        registerAction(actions, FUNCTION_PERSONALIZE, CALLER, of(OBJECT), this::personalize);
+        registerAction(actions, FUNCTION_DEPERSONALIZE, CALLER, none(), (args, callbackContext) -> depersonalize(callbackContext));
+        registerAction(actions, FUNCTION_DEPERSONALIZE_INSTALLATION, CALLER, of(STRING), this::depersonalizeInstallation);
+        registerAction(actions, FUNCTION_SET_INSTALLATION_AS_PRIMARY, CALLER, of(STRING, BOOLEAN), this::setInstallationAsPrimary);
+        registerAction(actions, FUNCTION_MARK_MESSAGES_SEEN, CALLER, variadic(STRING), this::markMessagesSeen);
+        registerAction(actions, FUNCTION_SHOW_DIALOG_FOR_ERROR, CALLER, of(NUMBER), this::showDialogForError);
+        registerAction(actions, FUNCTION_MESSAGESTORAGE_REGISTER, CALLER, of(STRING), PluginAction.ResultMode.STREAM, (args, callbackContext) -> MessageStoreAdapter.register(cordova.getActivity(), args, callbackContext));
+        registerAction(actions, FUNCTION_MESSAGESTORAGE_UNREGISTER, CALLER, of(STRING), PluginAction.ResultMode.NONE, (args, callbackContext) -> MessageStoreAdapter.unregister(args));
+        registerAction(actions, FUNCTION_MESSAGESTORAGE_RESULT, CALLER, of(STRING), PluginAction.ResultMode.NONE, (args, callbackContext) -> MessageStoreAdapter.storageResult(args));
+        registerAction(actions, FUNCTION_MESSAGESTORAGE_INVALIDATE_CACHE, CALLER, any(), PluginAction.ResultMode.NONE, (args, callbackContext) -> MessageStoreAdapter.invalidateCache(args));
+        registerAction(actions, FUNCTION_DEF_MESSAGESTORAGE_FIND, STORAGE, of(STRING), this::defaultMessageStorage_find);
+        registerAction(actions, FUNCTION_DEF_MESSAGESTORAGE_FINDALL, STORAGE, none(), (args, callbackContext) -> defaultMessageStorage_findAll(callbackContext));
+        registerAction(actions, FUNCTION_DEF_MESSAGESTORAGE_DELETE, STORAGE, of(STRING), this::defaultMessageStorage_delete);
+        registerAction(actions, FUNCTION_DEF_MESSAGESTORAGE_DELETEALL, STORAGE, none(), (args, callbackContext) -> defaultMessageStorage_deleteAll(callbackContext));
+        registerAction(actions, FUNCTION_DEF_MESSAGESTORAGE_DELETE_MESSAGES, STORAGE, of(ANY), this::defaultMessageStorage_deleteMessages);
+        registerAction(actions, FUNCTION_DEF_MESSAGESTORAGE_FIND_PAGE, STORAGE, any(), this::defaultMessageStorage_findPage);
+        registerAction(actions, FUNCTION_DEF_MESSAGESTORAGE_FINDALL_STREAM, STORAGE, any(), PluginAction.ResultMode.STREAM, this::defaultMessageStorage_findAllStream);
+        registerAction(actions, FUNCTION_DEF_MESSAGESTORAGE_QUERY, STORAGE, any(), this::defaultMessageStorage_query);
+        registerAction(actions, FUNCTION_DEF_MESSAGESTORAGE_SEARCH, STORAGE, of(STRING), this::defaultMessageStorage_search);
+        registerAction(actions, FUNCTION_DEF_MESSAGESTORAGE_COMPACT, STORAGE, none(), this::defaultMessageStorage_compact);
+        registerAction(actions, FUNCTION_SUBMIT_EVENT_IMMEDIATELY, CALLER, of(OBJECT), this::submitEventImmediately);
+        registerAction(actions, FUNCTION_SUBMIT_EVENT, CALLER, of(OBJECT), PluginAction.ResultMode.NONE, this::submitEvent);
+        registerAction(actions, FUNCTION_INAPP_CHAT_SHOW, CALLER, any(), PluginAction.ResultMode.NONE, this::showInAppChat);
+        registerAction(actions, FUNCTION_INAPP_CHAT_GET_MESSAGE_COUNTER, CALLER, none(), this::getMessageCounter);
+        registerAction(actions, FUNCTION_INAPP_CHAT_IS_AVAILABLE, CALLER, none(), this::isChatAvailable);
+        registerAction(actions, FUNCTION_INAPP_CHAT_RESET_MESSAGE_COUNTER, CALLER, none(), PluginAction.ResultMode.NONE, this::resetMessageCounter);
+        registerAction(actions, FUNCTION_INAPP_CHAT_SET_LANGUAGE, CALLER, of(STRING), PluginAction.ResultMode.NONE, this::setLanguage);
+        registerAction(actions, FUNCTION_INAPP_CHAT_SEND_CONTEXTUAL_DATA, CALLER, of(STRING, BOOLEAN), PluginAction.ResultMode.NONE, this::sendContextualData);
+        registerAction(actions, FUNCTION_INAPP_CHAT_SET_JWT_PROVIDER, CALLER, none(), PluginAction.ResultMode.STREAM, this::setChatJwtProvider);
+        registerAction(actions, FUNCTION_INAPP_CHAT_SET_JWT, CALLER, any(), PluginAction.ResultMode.NONE, this::setChatJwt);
+        registerAction(actions, FUNCTION_INAPP_CHAT_SET_CUSTOMIZATION, CALLER, of(OBJECT), this::setChatCustomization);
+        registerAction(actions, FUNCTION_INAPP_CHAT_SET_EXCEPTION_HANDLER, CALLER, of(BOOLEAN), PluginAction.ResultMode.STREAM, this::setChatExceptionHandler);
+        registerAction(actions, FUNCTION_INAPP_CHAT_SET_WIDGET_THEME, CALLER, of(STRING), PluginAction.ResultMode.NONE, this::setWidgetTheme);
+        registerAction(actions, FUNCTION_REGISTER_FOR_POST_NOTIFICATIONS, CALLER, none(), PluginAction.ResultMode.NONE, this::registerForAndroidRemoteNotifications);
+        registerAction(actions, FUNCTION_MOBILE_FETCH_INBOX, CALLER, of(STRING, STRING, OBJECT), this::fetchInboxMessages);
+        registerAction(actions, FUNCTION_MOBILE_FETCH_INBOX_WITHOUT_TOKEN, CALLER, of(STRING, OBJECT), this::fetchInboxMessagesWithoutToken);
+        registerAction(actions, FUNCTION_MOBILE_SYNC_INBOX, CALLER, of(ANY, STRING, ANY), this::syncInboxMessages);
+        registerAction(actions, FUNCTION_MOBILE_QUERY_INBOX, CALLER, of(ANY, STRING, ANY), this::queryInboxMessages);
+        registerAction(actions, FUNCTION_MOBILE_INBOX_SET_SEEN, CALLER, of(STRING, ARRAY), this::setInboxMessagesSeen);
+        registerAction(actions, FUNCTION_SET_USER_DATA_JWT, CALLER, of(STRING), PluginAction.ResultMode.NONE, this::setJwtSupplier);
+        registerAction(actions, FUNCTION_CLEANUP, CALLER, none(), (args, callbackContext) -> cleanup(callbackContext));
+        registerAction(actions, FUNCTION_ENABLE_PLATFORM_NATIVE_LOGGING, CALLER, none(), PluginAction.ResultMode.STREAM, (args, callbackContext) -> togglePlatformNativeLogging(true, callbackContext));
+        registerAction(actions, FUNCTION_SET_PLATFORM_NATIVE_LOG_FILTER, CALLER, of(OBJECT), this::setPlatformNativeLogFilter);
+        registerAction(actions, FUNCTION_ENABLE_PLATFORM_NATIVE_FILE_LOGGING, CALLER, any(), this::enablePlatformNativeFileLogging);
+        registerAction(actions, FUNCTION_DISABLE_PLATFORM_NATIVE_FILE_LOGGING, CALLER, none(), (args, callbackContext) -> disablePlatformNativeFileLogging(callbackContext));
+        registerAction(actions, FUNCTION_EXPORT_PLATFORM_NATIVE_LOGS, STORAGE, any(), this::exportPlatformNativeLogs);
+        registerAction(actions, FUNCTION_GET_ACTION_METRICS, CALLER, none(), (args, callbackContext) -> sendCallbackSuccess(callbackContext, actionMetrics.toJSON()));
+        registerAction(actions, FUNCTION_RESET_ACTION_METRICS, CALLER, none(), (args, callbackContext) -> {
+            actionMetrics.reset();
+            sendCallbackSuccess(callbackContext);
+        });
+        registerAction(actions, FUNCTION_BATCH, CALLER, of(ARRAY), PluginAction.ResultMode.STREAM, this::batch);
+        registerAction(actions, FUNCTION_GET_SCHEDULER_STATS, CALLER, none(), (args, callbackContext) -> sendCallbackSuccess(callbackContext, PluginScheduler.getInstance().toJSON()));
+        registerAction(actions, FUNCTION_FLUSH_EVENTS, CALLER, none(), (args, callbackContext) -> {
+            customEventBuffer.flush(CustomEventBuffer.FlushReason.EXPLICIT);
+            sendCallbackSuccess(callbackContext);
+        });
+        registerAction(actions, FUNCTION_GET_EVENT_BUFFER_STATS, CALLER, none(), (args, callbackContext) -> sendCallbackSuccess(callbackContext, customEventBuffer.toJSON()));
+        return actions;
+    }
+
+    private static void registerAction(Map<String, PluginAction> actions,
+                                       String name,
+                                       PluginAction.ThreadAffinity threadAffinity,
+                                       PluginAction.ArgumentSchema argumentSchema,
+                                       PluginAction.Handler handler) {
+        registerAction(actions, name, threadAffinity, argumentSchema, PluginAction.ResultMode.SINGLE, handler);
+    }
+
+    private static void registerAction(Map<String, PluginAction> actions,
+                                       String name,
+                                       PluginAction.ThreadAffinity threadAffinity,
+                                       PluginAction.ArgumentSchema argumentSchema,
+                                       PluginAction.ResultMode resultMode,
+                                       PluginAction.Handler handler) {
+        actions.put(name, new PluginAction(name, threadAffinity, argumentSchema, resultMode, handler));
+    }
+
+    /**
+     * Validates arguments against the action schema and invokes the handler on the thread declared by the action.
+     * Errors of handlers executed on the bridge thread are propagated to Cordova as before,
+     * errors of deferred handlers are reported to the callback.
+     */
+    private void dispatch(final PluginAction action, final JSONArray args, final CallbackContext callbackContext) throws JSONException {
+        String violation = action.argumentSchema.validate(args);
+        if (violation != null) {
+            actionMetrics.recordError(action.name);
+            sendCallbackError(callbackContext, "Invalid arguments for " + action.name + ": " + violation);
+            return;
+        }
+
+        final CallbackContext measuredCallbackContext = new MeasuredCallbackContext(action.name, callbackContext);
+        switch (action.threadAffinity) {
+            case UI:
+                cordova.getActivity().runOnUiThread(() -> invokeDeferred(action, args, measuredCallbackContext));
+                break;
+            case NETWORK:
+                runInBackground(PluginScheduler.Lane.NETWORK, () -> invokeDeferred(action, args, measuredCallbackContext));
+                break;
+            case STORAGE:
+                runInBackground(PluginScheduler.Lane.STORAGE, () -> invokeDeferred(action, args, measuredCallbackContext));
+                break;
+            case LIGHT:
+                runInBackground(PluginScheduler.Lane.LIGHT, () -> invokeDeferred(action, args, measuredCallbackContext));
+                break;
+            default:
+                long start = SystemClock.elapsedRealtime();
+                try {
+                    action.handler.execute(args, measuredCallbackContext);
+                } catch (JSONException | RuntimeException e) {
+                    actionMetrics.recordError(action.name);
+                    throw e;
+                } finally {
+                    actionMetrics.recordDispatch(action.name, SystemClock.elapsedRealtime() - start);
+                }
+        }
+    }
+
+    /**
+     * Executes several actions provided as {@code [{"action": <name>, "args": [...]}, ...]} with a single bridge call.
+     * Nested batches are not supported.
+     */
+    private void batch(JSONArray args, final CallbackContext callbackContext) throws JSONException {
+        new BatchCall(args.getJSONArray(0), callbackContext, webView).execute(new BatchCall.Dispatcher() {
+            @Override
+            public PluginAction resolve(@NonNull String action) {
+                if (FUNCTION_BATCH.equals(action)) {
+                    return null;
+                }
+                return actions.get(action);
+            }
+
+            @Override
+            public void dispatch(@NonNull PluginAction action, @NonNull JSONArray args, @NonNull CallbackContext callbackContext) throws JSONException {
+                actionMetrics.recordCall(action.name, -1);
+                MobileMessagingCordova.this.dispatch(action, args, callbackContext);
+            }
+        });
+    }
+
+    private void invokeDeferred(PluginAction action, JSONArray args, CallbackContext callbackContext) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            action.handler.execute(args, callbackContext);
+        } catch (Exception e) {
+            CordovaLogger.e(TAG, "Cannot execute " + action.name + ": " + e.getMessage(), e);
+            sendCallbackError(callbackContext, e.getMessage());
+        } finally {
+            actionMetrics.recordDispatch(action.name, SystemClock.elapsedRealtime() - start);
+        }
+    }
+
+    /**
+     * Callback context which reports time until the first result of an action, length of results and error results to action metrics.
+     */
+    private class MeasuredCallbackContext extends CallbackContext {
+        private final String action;
+        private final CallbackContext delegate;
+        private final long startedAt = SystemClock.elapsedRealtime();
+        private final AtomicBoolean resultRecorded = new AtomicBoolean(false);
+
+        MeasuredCallbackContext(String action, CallbackContext delegate) {
+            super(delegate.getCallbackId(), webView);
+            this.action = action;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void sendPluginResult(PluginResult pluginResult) {
+            boolean error = pluginResult.getStatus() == PluginResult.Status.ERROR.ordinal();
+            if (resultRecorded.compareAndSet(false, true)) {
+                actionMetrics.recordResult(action, SystemClock.elapsedRealtime() - startedAt, error);
+            } else if (error) {
+                actionMetrics.recordError(action);
+            }
+            String message = pluginResult.getMessage();
+            if (message != null) {
+                actionMetrics.recordResultLength(action, message.length());
+            }
+            delegate.sendPluginResult(pluginResult);
         }
 
-        return false;
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
     }
 
 
@@ -573,10 +805,25 @@ public class MobileMessagingCordova extends CordovaPlugin {
             builder.withoutSystemInfo();
         }
         if (configuration.messageStorage != null) {
+            Configuration.MessageStorageOptions options = configuration.messageStorageOptions;
+            MessageStoreAdapter.configureCache(options != null && options.nativeCacheEnabled
+                    ? new MessageStoreCache(options.nativeCacheMaxSizeKb)
+                    : null);
+            MessageStoreAdapter.setRequestTimeout(options != null ? options.requestTimeoutMs : StorageRequests.DEFAULT_TIMEOUT_MS);
             builder.withMessageStore(MessageStoreAdapter.class);
         } else if (configuration.defaultMessageStorage) {
-            builder.withMessageStore(SQLiteMessageStore.class);
-        }
+            Configuration.DefaultMessageStorageOptions options = configuration.defaultMessageStorageOptions;
+            MessageSearchIndex.configure(context, options != null ? options.searchableCustomPayloadKeys : null);
+            MessageStoreCompactor.configure(context, retentionPolicy(options != null ? options.retention : null));
+            MessageStoreCompactor.schedule(context);
+            builder.withMessageStore(CordovaMessageStore.class);
+        }
+        binaryPayloads = configuration.bridgeOptions != null && configuration.bridgeOptions.binaryPayloads;
+        Configuration.InboxOptions inboxOptions = configuration.inboxOptions;
+        inboxCache = inboxOptions != null && inboxOptions.nativeCacheEnabled
+                ? new InboxCache(inboxOptions.nativeCacheTtlSeconds, inboxOptions.nativeCacheMaxSizeKb)
+                : null;
+        customEventBuffer.setCoalescedDefinitionIds(configuration.customEventOptions != null ? configuration.customEventOptions.coalescedDefinitionIds : null);
         if (configuration.fullFeaturedInAppsEnabled) {
             builder.withFullFeaturedInApps();
         }
@@ -709,15 +956,19 @@ public class MobileMessagingCordova extends CordovaPlugin {
         LocalBroadcastManager.getInstance(cordova.getActivity()).registerReceiver(commonLibraryBroadcastReceiver, intentFilter);
 
         CacheManager.cleanupOldEventsFromPersistedCache(cordova.getActivity());
+        List<JSONArray> cachedEvents = new ArrayList<JSONArray>();
         for (CacheManager.Event event : CacheManager.loadEvents(cordova.getActivity())) {
-            sendCallbackEvent(event.type, callbackContext, event.object);
+            if (event.type != null && event.object != null) {
+                cachedEvents.add(new JSONArray().put(event.type).put(event.object));
+            }
         }
+        eventDispatcher.dispatchAll(callbackContext, cachedEvents);
     }
 
     private void saveUser(JSONArray args, final CallbackContext callbackContext) throws JSONException {
         try {
             final User user = UserJson.resolveUser(args.getJSONObject(0));
-            runInBackground(new Runnable() {
+            runInBackground(PluginScheduler.Lane.NETWORK, new Runnable() {
                 @Override
                 public void run() {
                     mobileMessaging().saveUser(user, userResultListener(callbackContext));
@@ -729,7 +980,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
     }
 
     private void fetchUser(final CallbackContext callbackContext) {
-        runInBackground(new Runnable() {
+        runInBackground(PluginScheduler.Lane.NETWORK, new Runnable() {
             @Override
             public void run() {
                 mobileMessaging().fetchUser(userResultListener(callbackContext));
@@ -760,7 +1011,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
 
     private void saveInstallation(JSONArray args, final CallbackContext callbackContext) throws JSONException {
         final Installation installation = InstallationJson.resolveInstallation(args.getJSONObject(0));
-        runInBackground(new Runnable() {
+        runInBackground(PluginScheduler.Lane.NETWORK, new Runnable() {
             @Override
             public void run() {
                 mobileMessaging()
@@ -770,7 +1021,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
     }
 
     private void fetchInstallation(final CallbackContext callbackContext) {
-        runInBackground(new Runnable() {
+        runInBackground(PluginScheduler.Lane.NETWORK, new Runnable() {
             @Override
             public void run() {
                 mobileMessaging().fetchInstallation(installationResultListener(callbackContext));
@@ -802,7 +1053,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
     private void personalize(JSONArray args, final CallbackContext callbackContext) throws JSONException {
         try {
             final PersonalizationCtx ctx = PersonalizationCtx.resolvePersonalizationCtx(args.getJSONObject(0));
-            runInBackground(new Runnable() {
+            runInBackground(PluginScheduler.Lane.NETWORK, new Runnable() {
                 @Override
                 public void run() {
                     mobileMessaging().personalize(ctx.userIdentity, ctx.userAttributes, ctx.forceDepersonalize, ctx.keepAsLead, ctx.setDeviceAsPrimary, new MobileMessaging.ResultListener<User>() {
@@ -824,14 +1075,18 @@ public class MobileMessagingCordova extends CordovaPlugin {
     }
 
     private void depersonalize(final CallbackContext callbackContext) {
-        runInBackground(new Runnable() {
+        final List<CustomEvent> bufferedEvents = customEventBuffer.take(CustomEventBuffer.FlushReason.EXPLICIT);
+        runInBackground(PluginScheduler.Lane.NETWORK, new Runnable() {
             @Override
             public void run() {
+                // events submitted so far belong to the current user
+                submitCustomEventsNow(bufferedEvents);
                 mobileMessaging().depersonalize(new MobileMessaging.ResultListener<SuccessPending>() {
                     @Override
                     public void onResult(Result<SuccessPending, MobileMessagingError> result) {
                         if (result.isSuccess()) {
                             mobileMessaging().setJwtSupplier(() -> null);
+                            invalidateInboxCache(cordova.getActivity().getApplicationContext());
                             sendCallbackSuccess(callbackContext, depersonalizeStates.get(result.getData()));
                         } else {
                             sendCallbackError(callbackContext, result.getError().getMessage());
@@ -852,7 +1107,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
         }
 
         final String regId = pushRegId;
-        runInBackground(new Runnable() {
+        runInBackground(PluginScheduler.Lane.NETWORK, new Runnable() {
             @Override
             public void run() {
                 mobileMessaging().depersonalizeInstallation(regId, installationsResultListener(callbackContext));
@@ -873,7 +1128,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
 
         final String regId = pushRegId;
         final Boolean isPrimaryDevice = isPrimary;
-        runInBackground(new Runnable() {
+        runInBackground(PluginScheduler.Lane.NETWORK, new Runnable() {
             @Override
             public void run() {
                 mobileMessaging().setInstallationAsPrimary(regId, isPrimaryDevice, installationsResultListener(callbackContext));
@@ -898,13 +1153,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
 
     private void markMessagesSeen(final JSONArray args, final CallbackContext callbackContext) throws JSONException {
         final String messageIds[] = resolveStringArray(args);
-        runInBackground(new Runnable() {
-            @Override
-            public void run() {
-                mobileMessaging().setMessagesSeen(messageIds);
-                sendCallbackSuccess(callbackContext, args);
-            }
-        });
+        SeenQueue.getInstance(cordova.getActivity()).markMessagesSeen(messageIds, seenCallback(callbackContext));
     }
 
     private void showDialogForError(final JSONArray args, final CallbackContext callbackContext) throws JSONException {
@@ -1211,7 +1460,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
         }
     }
 
-    private synchronized void defaultMessageStorage_find(JSONArray args, CallbackContext callbackContext) throws JSONException {
+    private void defaultMessageStorage_find(JSONArray args, CallbackContext callbackContext) throws JSONException {
         Context context = cordova.getActivity();
         String messageId = resolveStringParameter(args);
         MessageStore messageStore = MobileMessaging.getInstance(context).getMessageStore();
@@ -1220,6 +1469,16 @@ public class MobileMessagingCordova extends CordovaPlugin {
             return;
         }
 
+        if (messageStore instanceof CordovaMessageStore) {
+            JSONObject message = ((CordovaMessageStore) messageStore).find(context, messageId);
+            if (message != null) {
+                sendCallbackSuccess(callbackContext, message);
+            } else {
+                sendCallbackSuccessEmpty(callbackContext);
+            }
+            return;
+        }
+
         for (Message m : messageStore.findAll(context)) {
             if (messageId.equals(m.getMessageId())) {
                 sendCallbackSuccess(callbackContext, MessageJson.toJSON(m));
@@ -1236,11 +1495,23 @@ public class MobileMessagingCordova extends CordovaPlugin {
             sendCallbackSuccess(callbackContext, new JSONArray());
             return;
         }
+        if (messageStore instanceof CordovaMessageStore && binaryPayloads) {
+            BinaryPayloadEncoder encoder = BinaryPayloadEncoder.obtain().beginArray();
+            ((CordovaMessageStore) messageStore).writeAll(context, encoder);
+            sendCallbackWithResult(callbackContext, encoder.toPluginResult(PluginResult.Status.OK));
+            return;
+        }
+        if (messageStore instanceof CordovaMessageStore) {
+            JsonPayloadWriter writer = JsonPayloadWriter.obtain();
+            ((CordovaMessageStore) messageStore).writeAll(context, writer);
+            sendCallbackWithResult(callbackContext, writer.toPluginResult(PluginResult.Status.OK));
+            return;
+        }
         List<Message> messages = messageStore.findAll(context);
         sendCallbackSuccess(callbackContext, MessageJson.toJSONArray(messages.toArray(new Message[messages.size()])));
     }
 
-    private synchronized void defaultMessageStorage_delete(JSONArray args, CallbackContext callbackContext) throws JSONException {
+    private void defaultMessageStorage_delete(JSONArray args, CallbackContext callbackContext) throws JSONException {
         Context context = cordova.getActivity();
         String messageId = resolveStringParameter(args);
         MessageStore messageStore = MobileMessaging.getInstance(context).getMessageStore();
@@ -1249,6 +1520,12 @@ public class MobileMessagingCordova extends CordovaPlugin {
             return;
         }
 
+        if (messageStore instanceof CordovaMessageStore) {
+            ((CordovaMessageStore) messageStore).delete(context, Collections.singletonList(messageId), 0);
+            sendCallbackSuccess(callbackContext);
+            return;
+        }
+
         List<Message> messagesToKeep = new ArrayList<Message>();
         for (Message m : messageStore.findAll(context)) {
             if (messageId.equals(m.getMessageId())) {
@@ -1261,6 +1538,147 @@ public class MobileMessagingCordova extends CordovaPlugin {
         sendCallbackSuccess(callbackContext);
     }
 
+    private void defaultMessageStorage_deleteMessages(JSONArray args, CallbackContext callbackContext) throws JSONException {
+        Context context = cordova.getActivity();
+        MessageStore messageStore = MobileMessaging.getInstance(context).getMessageStore();
+        if (!(messageStore instanceof CordovaMessageStore)) {
+            sendCallbackError(callbackContext, "Default message storage is not enabled");
+            return;
+        }
+
+        JSONArray ids = args.optJSONArray(0);
+        long sentBefore = 0;
+        JSONObject criteria = args.optJSONObject(0);
+        if (criteria != null) {
+            ids = criteria.optJSONArray("messageIds");
+            sentBefore = criteria.optLong("sentBefore", 0);
+        }
+
+        List<String> messageIds = new ArrayList<String>();
+        if (ids != null) {
+            for (int i = 0; i < ids.length(); i++) {
+                String id = ids.optString(i, null);
+                if (id != null) {
+                    messageIds.add(id);
+                }
+            }
+        }
+
+        int deleted = ((CordovaMessageStore) messageStore).delete(context, messageIds, sentBefore);
+        sendCallbackWithResult(callbackContext, new PluginResult(PluginResult.Status.OK, deleted));
+    }
+
+    private void defaultMessageStorage_findPage(JSONArray args, CallbackContext callbackContext) throws JSONException {
+        Context context = cordova.getActivity();
+        MessageStore messageStore = MobileMessaging.getInstance(context).getMessageStore();
+        if (!(messageStore instanceof CordovaMessageStore)) {
+            sendCallbackError(callbackContext, "Default message storage is not enabled");
+            return;
+        }
+
+        int pageSize = args.isNull(0) ? DEFAULT_PAGE_SIZE : args.optInt(0, DEFAULT_PAGE_SIZE);
+        String token = args.isNull(1) ? null : args.optString(1, null);
+        try {
+            CordovaMessageStore.Page page = ((CordovaMessageStore) messageStore).findPage(context, pageSize, token);
+            if (binaryPayloads) {
+                JSONObject header = new JSONObject();
+                header.put("nextToken", page.nextToken != null ? page.nextToken : JSONObject.NULL);
+                BinaryPayloadEncoder encoder = BinaryPayloadEncoder.obtain().begin(header.toString(), "messages");
+                page.writeMessages(encoder);
+                sendCallbackWithResult(callbackContext, encoder.toPluginResult(PluginResult.Status.OK));
+                return;
+            }
+            JsonPayloadWriter writer = JsonPayloadWriter.obtain().beginObject();
+            page.writeMessages(writer);
+            if (page.nextToken != null) {
+                writer.name("nextToken").value(page.nextToken);
+            }
+            sendCallbackWithResult(callbackContext, writer.endObject().toPluginResult(PluginResult.Status.OK));
+        } catch (IllegalArgumentException e) {
+            sendCallbackError(callbackContext, e.getMessage());
+        }
+    }
+
+    private void defaultMessageStorage_findAllStream(JSONArray args, CallbackContext callbackContext) throws JSONException {
+        Context context = cordova.getActivity();
+        MessageStore messageStore = MobileMessaging.getInstance(context).getMessageStore();
+        if (!(messageStore instanceof CordovaMessageStore)) {
+            sendCallbackError(callbackContext, "Default message storage is not enabled");
+            return;
+        }
+
+        int pageSize = args.isNull(0) ? DEFAULT_PAGE_SIZE : args.optInt(0, DEFAULT_PAGE_SIZE);
+        String token = null;
+        do {
+            CordovaMessageStore.Page page = ((CordovaMessageStore) messageStore).findPage(context, pageSize, token);
+            token = page.nextToken;
+
+            if (binaryPayloads) {
+                BinaryPayloadEncoder encoder = BinaryPayloadEncoder.obtain().begin(token == null ? "{\"done\":true}" : "{\"done\":false}", "messages");
+                page.writeMessages(encoder);
+                sendCallbackWithResult(callbackContext, encoder.toPluginResult(PluginResult.Status.OK), token != null);
+                continue;
+            }
+            JsonPayloadWriter writer = JsonPayloadWriter.obtain().beginObject();
+            page.writeMessages(writer);
+            writer.name("done").value(token == null).endObject();
+            sendCallbackWithResult(callbackContext, writer.toPluginResult(PluginResult.Status.OK), token != null);
+        } while (token != null);
+    }
+
+    private void defaultMessageStorage_query(JSONArray args, CallbackContext callbackContext) throws JSONException {
+        Context context = cordova.getActivity();
+        MessageStore messageStore = MobileMessaging.getInstance(context).getMessageStore();
+        if (!(messageStore instanceof CordovaMessageStore)) {
+            sendCallbackError(callbackContext, "Default message storage is not enabled");
+            return;
+        }
+
+        try {
+            MessageQuery query = MessageQuery.fromJSON(args.optJSONObject(0));
+            JsonPayloadWriter writer = JsonPayloadWriter.obtain();
+            ((CordovaMessageStore) messageStore).query(context, query, writer);
+            sendCallbackWithResult(callbackContext, writer.toPluginResult(PluginResult.Status.OK));
+        } catch (IllegalArgumentException e) {
+            sendCallbackError(callbackContext, e.getMessage());
+        }
+    }
+
+    private void defaultMessageStorage_search(JSONArray args, CallbackContext callbackContext) throws JSONException {
+        Context context = cordova.getActivity();
+        MessageStore messageStore = MobileMessaging.getInstance(context).getMessageStore();
+        if (!(messageStore instanceof CordovaMessageStore)) {
+            sendCallbackError(callbackContext, "Default message storage is not enabled");
+            return;
+        }
+
+        String text = args.optString(0, "");
+        JSONObject options = args.optJSONObject(1);
+        int limit = options != null ? options.optInt("limit", DEFAULT_SEARCH_LIMIT) : DEFAULT_SEARCH_LIMIT;
+        List<String> fields = null;
+        JSONArray fieldsJson = options != null ? options.optJSONArray("fields") : null;
+        if (fieldsJson != null && fieldsJson.length() > 0) {
+            fields = new ArrayList<>();
+            for (int i = 0; i < fieldsJson.length(); i++) {
+                fields.add(fieldsJson.getString(i));
+            }
+        }
+        JsonPayloadWriter writer = JsonPayloadWriter.obtain();
+        ((CordovaMessageStore) messageStore).search(context, text, limit, fields, writer);
+        sendCallbackWithResult(callbackContext, writer.toPluginResult(PluginResult.Status.OK));
+    }
+
+    private void defaultMessageStorage_compact(JSONArray args, CallbackContext callbackContext) throws JSONException {
+        Context context = cordova.getActivity();
+        MessageStore messageStore = MobileMessaging.getInstance(context).getMessageStore();
+        if (!(messageStore instanceof CordovaMessageStore)) {
+            sendCallbackError(callbackContext, "Default message storage is not enabled");
+            return;
+        }
+
+        sendCallbackSuccess(callbackContext, MessageStoreCompactor.compact(context).toJSON());
+    }
+
     private synchronized void defaultMessageStorage_deleteAll(CallbackContext callbackContext) {
         Context context = cordova.getActivity();
         MessageStore messageStore = MobileMessaging.getInstance(context).getMessageStore();
@@ -1274,9 +1692,12 @@ public class MobileMessagingCordova extends CordovaPlugin {
 
     private void submitEventImmediately(JSONArray args, final CallbackContext callbackContext) throws JSONException {
         final CustomEvent customEvent = resolveCustomEvent(args);
-        runInBackground(new Runnable() {
+        final List<CustomEvent> bufferedEvents = customEventBuffer.take(CustomEventBuffer.FlushReason.EXPLICIT);
+        runInBackground(PluginScheduler.Lane.NETWORK, new Runnable() {
             @Override
             public void run() {
+                // keeps buffered events ahead of this one
+                submitCustomEventsNow(bufferedEvents);
                 mobileMessaging().submitEvent(customEvent, new MobileMessaging.ResultListener<CustomEvent>() {
                     @Override
                     public void onResult(Result<CustomEvent, MobileMessagingError> result) {
@@ -1292,15 +1713,31 @@ public class MobileMessagingCordova extends CordovaPlugin {
     }
 
     private void submitEvent(JSONArray args, CallbackContext callbackContext) throws JSONException {
-        final CustomEvent customEvent = resolveCustomEvent(args);
-        runInBackground(new Runnable() {
+        customEventBuffer.add(resolveCustomEvent(args), args.getJSONObject(0));
+    }
+
+    private void submitCustomEvents(final List<CustomEvent> events) {
+        runInBackground(PluginScheduler.Lane.LIGHT, new Runnable() {
             @Override
             public void run() {
-                mobileMessaging().submitEvent(customEvent);
+                submitCustomEventsNow(events);
             }
         });
     }
 
+    /**
+     * Hands events to the SDK on the calling thread, so that a following SDK call on the same thread comes after them.
+     */
+    private void submitCustomEventsNow(List<CustomEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        MobileMessaging mobileMessaging = mobileMessaging();
+        for (CustomEvent event : events) {
+            mobileMessaging.submitEvent(event);
+        }
+    }
+
     @NonNull
     private static CustomEvent resolveCustomEvent(JSONArray args) throws JSONException {
         if (args.length() < 1 || args.getJSONObject(0) == null) {
@@ -1362,6 +1799,15 @@ public class MobileMessagingCordova extends CordovaPlugin {
         return config;
     }
 
+    @NonNull
+    private static MessageStoreCompactor.RetentionPolicy retentionPolicy(@Nullable Configuration.Retention retention) {
+        if (retention == null) {
+            return MessageStoreCompactor.RetentionPolicy.UNLIMITED;
+        }
+        return new MessageStoreCompactor.RetentionPolicy(retention.maxCount,
+                TimeUnit.DAYS.toMillis(retention.maxAgeDays), retention.maxSizeKb * 1024L);
+    }
+
     @NonNull
     private static String[] resolveStringArray(JSONArray args) throws JSONException {
         if (args.length() < 1 || args.getString(0) == null) {
@@ -1384,31 +1830,44 @@ public class MobileMessagingCordova extends CordovaPlugin {
                 sendCallbackError(callbackContext, "Failed setting inbox messages as seen, invalid arguments");
                 return;
             } else {
-                runInBackground(new Runnable() {
-                    @Override
-                    public void run() {
-                        MobileInbox.getInstance(cordova.getActivity().getApplication()).setSeen(externalUserId, messageIds, setSeenResultListener(callbackContext));
-                    }
-                });
+                SeenQueue.getInstance(cordova.getActivity()).setInboxMessagesSeen(externalUserId, messageIds, seenCallback(callbackContext));
             }
         } catch (Exception e) {
             sendCallbackError(callbackContext, "Failed setting inbox messages as seen " + e.getMessage());
         }
     }
 
-    private static MobileMessaging.ResultListener<String[]> setSeenResultListener(CallbackContext callbackContext) {
-        return new MobileMessaging.ResultListener<String[]>() {
+    private static SeenQueue.Callback seenCallback(final CallbackContext callbackContext) {
+        return new SeenQueue.Callback() {
             @Override
-            public void onResult(Result<String[], MobileMessagingError> result) {
-                if (result.isSuccess()) {
-                    try {
-                        sendCallbackSuccess(callbackContext, new JSONArray(result.getData()));
-                    } catch (JSONException e) {
-                        sendCallbackError(callbackContext, e.getMessage());
-                    }
-                } else {
-                    sendCallbackError(callbackContext, result.getError().getMessage());
+            public void onSuccess(@NonNull JSONArray messageIds) {
+                sendCallbackSuccess(callbackContext, messageIds);
+            }
+
+            @Override
+            public void onError(@NonNull String message) {
+                sendCallbackError(callbackContext, message);
+            }
+        };
+    }
+
+    /**
+     * Keeps cached and synchronized inbox up to date once the seen status of its messages is set on the server.
+     */
+    private static SeenQueue.InboxListener inboxSeenListener(final Context context) {
+        return new SeenQueue.InboxListener() {
+            @Override
+            public void onSeen(@NonNull final String externalUserId, @NonNull final String[] messageIds) {
+                InboxCache cache = inboxCache;
+                if (cache != null) {
+                    cache.invalidate(externalUserId);
                 }
+                runInBackground(PluginScheduler.Lane.STORAGE, new Runnable() {
+                    @Override
+                    public void run() {
+                        InboxStore.markSeen(context, externalUserId, messageIds);
+                    }
+                });
             }
         };
     }
@@ -1421,17 +1880,13 @@ public class MobileMessagingCordova extends CordovaPlugin {
         try {
             String token = args.getString(0);
             String externalUserId = args.getString(1);
-            MobileInboxFilterOptions filterOptions = MobileInboxFilterOptionsJson.mobileInboxFilterOptionsFromJSON(args.getJSONObject(2));
+            JSONObject filterJson = args.getJSONObject(2);
+            MobileInboxFilterOptions filterOptions = MobileInboxFilterOptionsJson.mobileInboxFilterOptionsFromJSON(filterJson);
             if (externalUserId == null || token == null) {
                 sendCallbackError(callbackContext, "Failed fetching inbox messages, invalid arguments");
                 return;
             } else {
-                runInBackground(new Runnable() {
-                    @Override
-                    public void run() {
-                        MobileInbox.getInstance(cordova.getActivity().getApplication()).fetchInbox(token, externalUserId, filterOptions, inboxResultListener(callbackContext));
-                    }
-                });
+                fetchInbox(token, externalUserId, filterJson, filterOptions, callbackContext);
             }
         } catch (Exception e) {
             sendCallbackError(callbackContext, e.getMessage());
@@ -1445,31 +1900,62 @@ public class MobileMessagingCordova extends CordovaPlugin {
         }
         try {
             String externalUserId = args.getString(0);
-            MobileInboxFilterOptions filterOptions = MobileInboxFilterOptionsJson.mobileInboxFilterOptionsFromJSON(args.getJSONObject(1));
+            JSONObject filterJson = args.getJSONObject(1);
+            MobileInboxFilterOptions filterOptions = MobileInboxFilterOptionsJson.mobileInboxFilterOptionsFromJSON(filterJson);
             if (externalUserId == null) {
                 sendCallbackError(callbackContext, "Failed fetching inbox messages, invalid arguments");
                 return;
             } else {
-                runInBackground(new Runnable() {
-                    @Override
-                    public void run() {
-                        MobileInbox.getInstance(cordova.getActivity().getApplication()).fetchInbox(externalUserId, filterOptions, inboxResultListener(callbackContext));
-                    }
-                });
+                fetchInbox(null, externalUserId, filterJson, filterOptions, callbackContext);
             }
         } catch (Exception e) {
             sendCallbackError(callbackContext, e.getMessage());
         }
     }
 
-    @NonNull
+    /**
+     * Fetches the inbox from the server. With the native inbox cache enabled, a cached page is sent right away
+     * and the fetched page is only announced with {@link #EVENT_INBOX_UPDATED} if it differs.
+     */
+    private void fetchInbox(@Nullable final String token, final String externalUserId, final JSONObject filterJson,
+                            final MobileInboxFilterOptions filterOptions, final CallbackContext callbackContext) throws JSONException {
+        final InboxCache cache = inboxCache;
+        final String key = InboxCache.key(externalUserId, filterJson);
+        final InboxCache.Page cached = cache != null ? cache.get(key) : null;
+        final MobileMessaging.ResultListener<Inbox> listener;
+        if (cache == null) {
+            listener = inboxResultListener(callbackContext);
+        } else if (cached == null) {
+            listener = cachingInboxResultListener(cache, key, externalUserId, null, callbackContext);
+        } else {
+            sendInbox(callbackContext, cached);
+            if (!cache.startRevalidation(key)) {
+                return;
+            }
+            listener = cachingInboxResultListener(cache, key, externalUserId, cached, null);
+        }
+
+        runInBackground(PluginScheduler.Lane.NETWORK, new Runnable() {
+            @Override
+            public void run() {
+                MobileInbox inbox = MobileInbox.getInstance(cordova.getActivity().getApplication());
+                if (token != null) {
+                    inbox.fetchInbox(token, externalUserId, filterOptions, listener);
+                } else {
+                    inbox.fetchInbox(externalUserId, filterOptions, listener);
+                }
+            }
+        });
+    }
+
+    @NonNull
     private MobileMessaging.ResultListener<Inbox> inboxResultListener(final CallbackContext callbackContext) {
         return new MobileMessaging.ResultListener<Inbox>() {
             @Override
             public void onResult(Result<Inbox, MobileMessagingError> result) {
                 if (result.isSuccess()) {
                     JSONObject json = InboxMapper.toJSON(result.getData());
-                    sendCallbackSuccess(callbackContext, json);
+                    sendInbox(callbackContext, json);
                 } else {
                     sendCallbackError(callbackContext, result.getError().getMessage());
                 }
@@ -1477,6 +1963,324 @@ public class MobileMessagingCordova extends CordovaPlugin {
         };
     }
 
+    /**
+     * Stores the fetched page in the cache. Sends it to the callback when nothing was cached,
+     * otherwise emits {@link #EVENT_INBOX_UPDATED} if it differs from the cached page which was already sent.
+     */
+    @NonNull
+    private MobileMessaging.ResultListener<Inbox> cachingInboxResultListener(final InboxCache cache, final String key, final String externalUserId,
+                                                                            @Nullable final InboxCache.Page cached, @Nullable final CallbackContext callbackContext) {
+        final long generation = cache.generation();
+        return new MobileMessaging.ResultListener<Inbox>() {
+            @Override
+            public void onResult(Result<Inbox, MobileMessagingError> result) {
+                if (cached != null) {
+                    cache.finishRevalidation(key);
+                }
+                if (!result.isSuccess()) {
+                    if (callbackContext != null) {
+                        sendCallbackError(callbackContext, result.getError().getMessage());
+                    } else {
+                        CordovaLogger.w(TAG, "Cannot revalidate inbox: " + result.getError().getMessage());
+                    }
+                    return;
+                }
+
+                JSONObject json = InboxMapper.toJSON(result.getData());
+                if (json == null) {
+                    if (callbackContext != null) {
+                        sendInbox(callbackContext, json);
+                    }
+                    return;
+                }
+                InboxCache.Page page = InboxCache.Page.from(json);
+                cache.put(key, externalUserId, page, generation);
+                if (callbackContext != null) {
+                    sendInbox(callbackContext, page);
+                } else if (!page.sameAs(cached)) {
+                    sendCallbackEvent(EVENT_INBOX_UPDATED, libraryEventReceiver, json, externalUserId);
+                }
+            }
+        };
+    }
+
+    /**
+     * Sends a fetched inbox page, as a binary frame if enabled.
+     */
+    private void sendInbox(CallbackContext callbackContext, @Nullable JSONObject json) {
+        if (json != null && binaryPayloads && json.optJSONArray("messages") != null) {
+            sendInbox(callbackContext, InboxCache.Page.from(json));
+        } else {
+            sendCallbackSuccess(callbackContext, json);
+        }
+    }
+
+    /**
+     * Sends a cached inbox page from its serialized parts, as a binary frame if enabled, otherwise as JSON text.
+     */
+    private void sendInbox(CallbackContext callbackContext, InboxCache.Page page) {
+        if (binaryPayloads && page.messages != null) {
+            BinaryPayloadEncoder encoder = BinaryPayloadEncoder.obtain().begin(page.header, "messages");
+            for (String message : page.messages) {
+                encoder.record(message);
+            }
+            sendCallbackWithResult(callbackContext, encoder.toPluginResult(PluginResult.Status.OK));
+        } else {
+            sendCallbackWithResult(callbackContext, JsonPayloadWriter.obtain().rawValue(page.json()).toPluginResult(PluginResult.Status.OK));
+        }
+    }
+
+    /**
+     * Drops the inbox cache and all synchronized inboxes.
+     */
+    private static void invalidateInboxCache(final Context context) {
+        InboxCache cache = inboxCache;
+        if (cache != null) {
+            cache.invalidate();
+        }
+        runInBackground(PluginScheduler.Lane.STORAGE, new Runnable() {
+            @Override
+            public void run() {
+                InboxStore.clear(context);
+            }
+        });
+    }
+
+    private void syncInboxMessages(JSONArray args, final CallbackContext callbackContext) {
+        final String token = args.isNull(0) ? null : args.optString(0, null);
+        final String externalUserId = args.optString(1, null);
+        final JSONObject filterJson = args.optJSONObject(2);
+        if (externalUserId == null) {
+            sendCallbackError(callbackContext, "Failed syncing inbox messages, invalid arguments");
+            return;
+        }
+
+        final Context context = cordova.getActivity().getApplicationContext();
+        runInBackground(PluginScheduler.Lane.STORAGE, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    String key = InboxStore.key(externalUserId, filterJson);
+                    InboxStore.State state = InboxStore.state(context, key);
+                    if (state == null) {
+                        fetchInboxForSync(context, token, externalUserId, filterJson, key, null, callbackContext);
+                    } else {
+                        JSONObject deltaJson = InboxStore.deltaFilterOptions(filterJson, state.newestTimestamp, INBOX_SYNC_DELTA_LIMIT);
+                        fetchInboxForSync(context, token, externalUserId, filterJson, key, deltaJson, callbackContext);
+                    }
+                } catch (Exception e) {
+                    sendCallbackError(callbackContext, "Failed syncing inbox messages " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Fetches messages newer than the stored ones, or the whole inbox matching the filter options when nothing is stored yet
+     * or there are more new messages than one incremental fetch returns, merges them into the stored inbox and sends it to JS.
+     *
+     * @param deltaJson filter options of an incremental fetch, null to fetch in full
+     */
+    private void fetchInboxForSync(final Context context, @Nullable final String token, final String externalUserId,
+                                   @Nullable final JSONObject filterJson, final String key, @Nullable final JSONObject deltaJson,
+                                   final CallbackContext callbackContext) throws JSONException {
+        JSONObject requestJson = deltaJson != null ? deltaJson : filterJson != null ? filterJson : new JSONObject();
+        final MobileInboxFilterOptions filterOptions = MobileInboxFilterOptionsJson.mobileInboxFilterOptionsFromJSON(requestJson);
+        final MobileMessaging.ResultListener<Inbox> listener = new MobileMessaging.ResultListener<Inbox>() {
+            @Override
+            public void onResult(final Result<Inbox, MobileMessagingError> result) {
+                runInBackground(PluginScheduler.Lane.STORAGE, new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!result.isSuccess()) {
+                            sendCallbackError(callbackContext, result.getError().getMessage());
+                            return;
+                        }
+                        try {
+                            Inbox inbox = result.getData();
+                            List<InboxMessage> messages = inbox.getMessages();
+                            if (deltaJson != null && messages != null && messages.size() >= INBOX_SYNC_DELTA_LIMIT) {
+                                CordovaLogger.d(TAG, "More than " + INBOX_SYNC_DELTA_LIMIT + " new inbox messages, fetching in full");
+                                fetchInboxForSync(context, token, externalUserId, filterJson, key, null, callbackContext);
+                                return;
+                            }
+                            boolean fetchedAll = deltaJson == null && filterOptions.getFromDateTime() == null
+                                    && (messages == null || messages.size() < inboxLimit(filterOptions));
+                            int added = InboxStore.save(context, key, externalUserId, inbox, InboxMapper.toJSON(inbox), deltaJson == null, fetchedAll);
+                            sendSyncedInbox(context, key, added, callbackContext);
+                        } catch (Exception e) {
+                            sendCallbackError(callbackContext, "Failed syncing inbox messages " + e.getMessage());
+                        }
+                    }
+                });
+            }
+        };
+
+        runInBackground(PluginScheduler.Lane.NETWORK, new Runnable() {
+            @Override
+            public void run() {
+                MobileInbox inbox = MobileInbox.getInstance(cordova.getActivity().getApplication());
+                if (token != null) {
+                    inbox.fetchInbox(token, externalUserId, filterOptions, listener);
+                } else {
+                    inbox.fetchInbox(externalUserId, filterOptions, listener);
+                }
+            }
+        });
+    }
+
+    /**
+     * Sends the stored inbox, with the number of messages added by the last synchronization in {@code newMessages}.
+     */
+    private void sendSyncedInbox(Context context, String key, int added, CallbackContext callbackContext) throws JSONException {
+        InboxStore.State state = InboxStore.state(context, key);
+        JSONObject header = state != null ? state.header : new JSONObject();
+        header.put("newMessages", added);
+        sendInboxPage(callbackContext, header, InboxStore.messages(context, key));
+    }
+
+    /**
+     * Sends inbox fields together with already serialized messages, as a binary frame if enabled.
+     */
+    private void sendInboxPage(CallbackContext callbackContext, JSONObject header, List<String> messages) {
+        if (binaryPayloads) {
+            BinaryPayloadEncoder encoder = BinaryPayloadEncoder.obtain().begin(header.toString(), "messages");
+            for (String message : messages) {
+                encoder.record(message);
+            }
+            sendCallbackWithResult(callbackContext, encoder.toPluginResult(PluginResult.Status.OK));
+            return;
+        }
+
+        JsonPayloadWriter writer = JsonPayloadWriter.obtain().beginObject().fields(header);
+        writer.name("messages").beginArray();
+        for (String message : messages) {
+            writer.rawValue(message);
+        }
+        writer.endArray().endObject();
+        sendCallbackWithResult(callbackContext, writer.toPluginResult(PluginResult.Status.OK));
+    }
+
+    private void queryInboxMessages(JSONArray args, final CallbackContext callbackContext) {
+        final String token = args.isNull(0) ? null : args.optString(0, null);
+        final String externalUserId = args.optString(1, null);
+        final JSONObject filterJson = args.optJSONObject(2);
+        final String cursor = args.isNull(3) ? null : args.optString(3, null);
+        if (externalUserId == null) {
+            sendCallbackError(callbackContext, "Failed querying inbox messages, invalid arguments");
+            return;
+        }
+
+        final Context context = cordova.getActivity().getApplicationContext();
+        runInBackground(PluginScheduler.Lane.STORAGE, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    MobileInboxFilterOptions filterOptions = MobileInboxFilterOptionsJson.mobileInboxFilterOptionsFromJSON(
+                            filterJson != null ? filterJson : new JSONObject());
+                    int limit = inboxLimit(filterOptions);
+                    InboxStore.Page page = InboxStore.query(context, externalUserId, filterJson, filterOptions, limit, cursor);
+                    if (page != null) {
+                        page.header.put("nextCursor", page.nextCursor != null ? page.nextCursor : JSONObject.NULL);
+                        sendInboxPage(callbackContext, page.header, page.messages);
+                        return;
+                    }
+                    CordovaLogger.d(TAG, "Inbox range is not synchronized, fetching from server");
+                    fetchInboxPage(token, externalUserId, filterJson, limit, cursor, callbackContext);
+                } catch (IllegalArgumentException e) {
+                    sendCallbackError(callbackContext, e.getMessage());
+                } catch (Exception e) {
+                    sendCallbackError(callbackContext, "Failed querying inbox messages " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Fetches a page of messages which are not stored locally from the server. When continuing after a cursor,
+     * messages up to the end of the second of the cursor position are fetched and those up to the position are skipped,
+     * as filter options have a precision of seconds.
+     */
+    private void fetchInboxPage(@Nullable final String token, final String externalUserId, @Nullable JSONObject filterJson,
+                                final int limit, @Nullable String cursor, final CallbackContext callbackContext) throws JSONException {
+        JSONObject requestJson = filterJson != null ? new JSONObject(filterJson.toString()) : new JSONObject();
+        requestJson.put("limit", limit + 1);
+        final long afterSent;
+        final String afterId;
+        if (cursor != null) {
+            String[] position = CordovaMessageStore.decodeToken(cursor);
+            afterSent = Long.parseLong(position[0]);
+            afterId = position[1];
+            requestJson.put("toDateTime", InboxStore.formatDateTime(afterSent + 1000));
+        } else {
+            afterSent = Long.MAX_VALUE;
+            afterId = null;
+        }
+
+        final MobileInboxFilterOptions filterOptions = MobileInboxFilterOptionsJson.mobileInboxFilterOptionsFromJSON(requestJson);
+        final MobileMessaging.ResultListener<Inbox> listener = new MobileMessaging.ResultListener<Inbox>() {
+            @Override
+            public void onResult(Result<Inbox, MobileMessagingError> result) {
+                if (!result.isSuccess()) {
+                    sendCallbackError(callbackContext, result.getError().getMessage());
+                    return;
+                }
+                try {
+                    Inbox inbox = result.getData();
+                    JSONObject header = InboxMapper.toJSON(inbox);
+                    JSONArray messagesJson = header.optJSONArray("messages");
+                    header.remove("messages");
+                    List<InboxMessage> fetched = inbox.getMessages() != null ? inbox.getMessages() : new ArrayList<InboxMessage>();
+
+                    List<String> messages = new ArrayList<>();
+                    InboxMessage last = null;
+                    for (int i = 0; i < fetched.size() && messages.size() < limit; i++) {
+                        InboxMessage message = fetched.get(i);
+                        JSONObject messageJson = messagesJson != null ? messagesJson.optJSONObject(i) : null;
+                        if (message == null || messageJson == null || !isBefore(message, afterSent, afterId)) {
+                            continue;
+                        }
+                        messages.add(messageJson.toString());
+                        last = message;
+                    }
+                    boolean hasNext = fetched.size() > limit && last != null;
+                    header.put("nextCursor", hasNext ? CordovaMessageStore.encodeToken(last.getSentTimestamp(), last.getMessageId()) : JSONObject.NULL);
+                    sendInboxPage(callbackContext, header, messages);
+                } catch (Exception e) {
+                    sendCallbackError(callbackContext, "Failed querying inbox messages " + e.getMessage());
+                }
+            }
+        };
+
+        runInBackground(PluginScheduler.Lane.NETWORK, new Runnable() {
+            @Override
+            public void run() {
+                MobileInbox inbox = MobileInbox.getInstance(cordova.getActivity().getApplication());
+                if (token != null) {
+                    inbox.fetchInbox(token, externalUserId, filterOptions, listener);
+                } else {
+                    inbox.fetchInbox(externalUserId, filterOptions, listener);
+                }
+            }
+        });
+    }
+
+    /**
+     * Whether the message comes after the cursor position in newest first order.
+     */
+    private static boolean isBefore(InboxMessage message, long sentTimestamp, @Nullable String messageId) {
+        if (messageId == null) {
+            return true;
+        }
+        return message.getSentTimestamp() < sentTimestamp
+                || (message.getSentTimestamp() == sentTimestamp && message.getMessageId() != null && message.getMessageId().compareTo(messageId) < 0);
+    }
+
+    private static int inboxLimit(MobileInboxFilterOptions filterOptions) {
+        Integer limit = filterOptions != null ? filterOptions.getLimit() : null;
+        return limit != null && limit > 0 ? Math.min(limit, MAX_INBOX_PAGE_SIZE) : DEFAULT_INBOX_LIMIT;
+    }
+
     @NonNull
     private String resolveStringParameter(JSONArray args) throws JSONException {
         if (args.length() < 1 || args.isNull(0) || args.getString(0) == null) {
@@ -1508,7 +2312,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
 
     @SuppressWarnings("UnusedReturnValue")
     private static boolean sendCallbackEvent(String event, CallbackContext callback, Object object1, Object... objects) {
-        if (event == null || object1 == null) {
+        if (event == null || callback == null || object1 == null) {
             return false;
         }
 
@@ -1519,23 +2323,19 @@ public class MobileMessagingCordova extends CordovaPlugin {
             parameters.put(o);
         }
 
-        PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, parameters);
-        pluginResult.setKeepCallback(true);
-        callback.sendPluginResult(pluginResult);
+        eventDispatcher.dispatch(callback, parameters);
         return true;
     }
 
     @SuppressWarnings("UnusedReturnValue")
     private static boolean sendCallbackEvent(String event, CallbackContext callback) {
-        if (event == null) {
+        if (event == null || callback == null) {
             return false;
         }
 
         JSONArray parameters = new JSONArray();
         parameters.put(event);
-        PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, parameters);
-        pluginResult.setKeepCallback(true);
-        callback.sendPluginResult(pluginResult);
+        eventDispatcher.dispatch(callback, parameters);
         return true;
     }
 
@@ -1587,15 +2387,8 @@ public class MobileMessagingCordova extends CordovaPlugin {
         context.sendPluginResult(result);
     }
 
-    private static void runInBackground(final Runnable runnable) {
-        new AsyncTask<Void, Void, Void>() {
-
-            @Override
-            protected Void doInBackground(Void... params) {
-                runnable.run();
-                return null;
-            }
-        }.execute();
+    private static void runInBackground(PluginScheduler.Lane lane, final Runnable runnable) {
+        PluginScheduler.getInstance().execute(lane, runnable);
     }
 
     private MobileMessaging mobileMessaging() {
@@ -1645,10 +2438,11 @@ public class MobileMessagingCordova extends CordovaPlugin {
     }
 
     private void cleanup(final CallbackContext callbackContext) {
-        runInBackground(new Runnable() {
+        runInBackground(PluginScheduler.Lane.STORAGE, new Runnable() {
             @Override
             public void run() {
                 mobileMessaging().setJwtSupplier(() -> null);
+                invalidateInboxCache(cordova.getActivity().getApplicationContext());
                 mobileMessaging().cleanup();
                 sendCallbackSuccess(callbackContext, "success");
             }
@@ -1672,6 +2466,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
         try {
             if (enable) {
                 if (callbackContext != null) {
+                    closeFileLogWriter();
                     CordovaLogWriter writer = new CordovaLogWriter(callbackContext);
                     CordovaLogger.useCordovaConsole(writer);
                     MobileMessagingLogger.enforce();
@@ -1682,7 +2477,7 @@ public class MobileMessagingCordova extends CordovaPlugin {
                 } else {
                     CordovaLogger.e(TAG, "Callback context is null, cannot enable platform native logging.");
                 }
-            } else {
+            } else if (CordovaLogger.isUsingCordovaConsole()) {
                 CordovaLogger.useNativeLogcat();
                 MobileMessagingLogger.reset();
             }
@@ -1692,16 +2487,93 @@ public class MobileMessagingCordova extends CordovaPlugin {
         }
     }
 
+    private void setPlatformNativeLogFilter(JSONArray args, final CallbackContext callbackContext) throws JSONException {
+        try {
+            CordovaLogger.setFilter(LogFilter.fromJSON(args.optJSONObject(0)));
+            sendCallbackSuccess(callbackContext);
+        } catch (IllegalArgumentException e) {
+            sendCallbackError(callbackContext, "Invalid log filter: " + e.getMessage());
+        }
+    }
+
+    private void enablePlatformNativeFileLogging(JSONArray args, final CallbackContext callbackContext) {
+        JSONObject options = args.optJSONObject(0);
+        int maxFileSizeKb = options != null ? options.optInt("maxFileSizeKb", FileLogWriter.DEFAULT_MAX_FILE_SIZE_KB) : FileLogWriter.DEFAULT_MAX_FILE_SIZE_KB;
+        int maxFiles = options != null ? options.optInt("maxFiles", FileLogWriter.DEFAULT_MAX_FILES) : FileLogWriter.DEFAULT_MAX_FILES;
+
+        try {
+            closeFileLogWriter();
+            FileLogWriter writer = new FileLogWriter(logsDirectory(), maxFileSizeKb, maxFiles);
+            CordovaLogger.useFile(writer);
+            MobileMessagingLogger.enforce();
+            MobileMessagingLogger.setWriter(writer);
+            sendCallbackSuccess(callbackContext);
+        } catch (Exception e) {
+            CordovaLogger.e(TAG, "Cannot enable platform native file logging: " + e.getMessage(), e);
+            sendCallbackError(callbackContext, e.getMessage());
+        }
+    }
+
+    private void disablePlatformNativeFileLogging(final CallbackContext callbackContext) {
+        if (closeFileLogWriter()) {
+            MobileMessagingLogger.reset();
+        }
+        sendCallbackSuccess(callbackContext);
+    }
+
+    private static boolean closeFileLogWriter() {
+        FileLogWriter writer = CordovaLogger.getFileWriter();
+        if (writer == null) {
+            return false;
+        }
+        CordovaLogger.useNativeLogcat();
+        writer.close();
+        return true;
+    }
+
+    private void exportPlatformNativeLogs(JSONArray args, final CallbackContext callbackContext) {
+        FileLogWriter writer = CordovaLogger.getFileWriter();
+        if (writer == null) {
+            sendCallbackError(callbackContext, "Platform native file logging is not enabled");
+            return;
+        }
+
+        String path = args.optString(0, null);
+        File target = path != null && !path.isEmpty()
+                ? new File(path.startsWith("file://") ? path.substring("file://".length()) : path)
+                : new File(cordova.getActivity().getCacheDir(), "mobile-messaging-logs-" + System.currentTimeMillis() + ".log");
+        try {
+            long bytes = writer.export(target);
+            CordovaLogger.d(TAG, "Exported " + bytes + " bytes of logs to " + target);
+            sendCallbackSuccess(callbackContext, target.getAbsolutePath());
+        } catch (IOException e) {
+            CordovaLogger.e(TAG, "Cannot export logs: " + e.getMessage(), e);
+            sendCallbackError(callbackContext, "Cannot export logs: " + e.getMessage());
+        }
+    }
+
+    private File logsDirectory() {
+        return new File(new File(cordova.getActivity().getApplicationContext().getFilesDir(), "mobile-messaging-cordova"), "logs");
+    }
+
+    /**
+     * Keeps events and messages which arrive before JS is ready to receive them
+     * in bounded persistent journals, so that they survive the process being killed.
+     */
     static class CacheManager {
         private static final String MESSAGES_KEY = TAG + ".cache.messages";
         private static final String EVENTS_KEY = TAG + ".cache.events";
+        private static final String JOURNAL_SIZE_KEY = TAG + ".cache.journalSizeKb";
+        private static final String JOURNAL_OVERFLOW_KEY = TAG + ".cache.journalOverflow";
+        private static final String JOURNAL_DIRECTORY = "mobile-messaging-cordova";
+        private static final String EVENTS_JOURNAL = "events.journal";
+        private static final String MESSAGES_JOURNAL = "messages.journal";
+        static final int DEFAULT_JOURNAL_SIZE_KB = 256;
+        static final String DEFAULT_JOURNAL_OVERFLOW = PersistentJournal.OverflowPolicy.DROP_OLDEST.name();
         private static final Object cacheLock = new Object();
 
-        private static final Object eventsCacheLock = new Object();
-        private static final List<Event> eventsCache = new LinkedList<Event>();
-
-        private static final Object messagesCacheLock = new Object();
-        private static final List<Message> messagesCache = new LinkedList<Message>();
+        private static PersistentJournal eventsJournal;
+        private static PersistentJournal messagesJournal;
 
         static class Event {
             String type;
@@ -1718,42 +2590,92 @@ public class MobileMessagingCordova extends CordovaPlugin {
             }
         }
 
-        private static void saveMessages(Context context, Message... messages) {
-            synchronized (messagesCacheLock) {
-                for (Message m : messages) {
-                    messagesCache.add(m);
+        /**
+         * Stores journal settings, so that they also apply when events arrive before the plugin is initialized.
+         * Settings take effect the next time journals are opened.
+         */
+        static void configure(Context context, int sizeKb, String overflowPolicy) {
+            PreferenceManager.getDefaultSharedPreferences(context).edit()
+                    .putInt(JOURNAL_SIZE_KEY, sizeKb)
+                    .putString(JOURNAL_OVERFLOW_KEY, overflowPolicy)
+                    .apply();
+        }
+
+        private static PersistentJournal eventsJournal(Context context) {
+            synchronized (cacheLock) {
+                if (eventsJournal == null) {
+                    eventsJournal = createJournal(context, EVENTS_JOURNAL);
+                }
+                return eventsJournal;
+            }
+        }
+
+        private static PersistentJournal messagesJournal(Context context) {
+            synchronized (cacheLock) {
+                if (messagesJournal == null) {
+                    messagesJournal = createJournal(context, MESSAGES_JOURNAL);
                 }
+                return messagesJournal;
+            }
+        }
+
+        private static PersistentJournal createJournal(Context context, String name) {
+            SharedPreferences sp = PreferenceManager.getDefaultSharedPreferences(context);
+            int sizeKb = Math.max(1, sp.getInt(JOURNAL_SIZE_KEY, DEFAULT_JOURNAL_SIZE_KB));
+            PersistentJournal.OverflowPolicy overflowPolicy = PersistentJournal.OverflowPolicy.fromString(
+                    sp.getString(JOURNAL_OVERFLOW_KEY, DEFAULT_JOURNAL_OVERFLOW), PersistentJournal.OverflowPolicy.DROP_OLDEST);
+            File file = new File(new File(context.getApplicationContext().getFilesDir(), JOURNAL_DIRECTORY), name);
+            return new PersistentJournal(file, sizeKb * 1024, overflowPolicy);
+        }
+
+        private static void saveMessages(Context context, Message... messages) {
+            PersistentJournal journal = messagesJournal(context);
+            for (Message m : messages) {
+                journal.append(MessageJson.toJSON(m).toString());
             }
         }
 
         private static Message[] loadMessages(Context context) {
-            List<Message> drained;
-            synchronized (messagesCacheLock) {
-                if (messagesCache.isEmpty()) {
-                    return new Message[0];
+            List<String> records = messagesJournal(context).drain();
+            if (records.isEmpty()) {
+                return new Message[0];
+            }
+
+            JSONArray json = new JSONArray();
+            for (String record : records) {
+                try {
+                    json.put(new JSONObject(record));
+                } catch (JSONException e) {
+                    CordovaLogger.w(TAG, "Cannot restore cached message: " + e.getMessage());
                 }
-                drained = new ArrayList<Message>(messagesCache);
-                messagesCache.clear();
             }
-            return drained.toArray(new Message[drained.size()]);
+            List<Message> messages = MessageJson.resolveMessages(json);
+            return messages.toArray(new Message[messages.size()]);
         }
 
         private static void saveEvent(Context context, String event, JSONObject object) {
-            synchronized (eventsCacheLock) {
-                eventsCache.add(new Event(event, object));
+            try {
+                JSONObject record = new JSONObject();
+                record.put("type", event);
+                record.put("object", object);
+                eventsJournal(context).append(record.toString());
+            } catch (JSONException e) {
+                CordovaLogger.e(TAG, "Cannot cache event " + event + ": " + e.getMessage());
             }
         }
 
         private static Event[] loadEvents(Context context) {
-            List<Event> drained;
-            synchronized (eventsCacheLock) {
-                if (eventsCache.isEmpty()) {
-                    return new Event[0];
+            List<String> records = eventsJournal(context).drain();
+            List<Event> events = new ArrayList<Event>(records.size());
+            for (String record : records) {
+                try {
+                    JSONObject json = new JSONObject(record);
+                    events.add(new Event(json.optString("type", null), json.optJSONObject("object")));
+                } catch (JSONException e) {
+                    CordovaLogger.w(TAG, "Cannot restore cached event: " + e.getMessage());
                 }
-                drained = new ArrayList<Event>(eventsCache);
-                eventsCache.clear();
             }
-            return drained.toArray(new Event[drained.size()]);
+            return events.toArray(new Event[events.size()]);
         }
 
         private static void cleanupOldEventsFromPersistedCache(Context context) {
@@ -1781,9 +2703,10 @@ public class MobileMessagingCordova extends CordovaPlugin {
     @SuppressWarnings("WeakerAccess")
     public static class MessageStoreAdapter implements MessageStore {
 
-        private static final long SYNC_CALL_TIMEOUT_MS = 30000;
         private static final Map<String, CallbackContext> registeredCallbacks = new HashMap<String, CallbackContext>();
-        private static final List<JSONArray> findAllResults = new LinkedList<JSONArray>();
+        private static final StorageRequests storageRequests = new StorageRequests();
+        @Nullable
+        private static volatile MessageStoreCache cache;
 
         @SuppressWarnings("unused")
         public MessageStoreAdapter() {
@@ -1792,16 +2715,32 @@ public class MobileMessagingCordova extends CordovaPlugin {
 
         @Override
         public List<Message> findAll(Context context) {
+            MessageStoreCache messageCache = cache;
+            List<Message> messages = messageCache != null ? messageCache.findAll() : null;
+            if (messages != null) {
+                return messages;
+            }
+
             return findAllJS();
         }
 
         @Override
         public long countAll(Context context) {
-            return findAll(context).size();
+            MessageStoreCache messageCache = cache;
+            long count = messageCache != null ? messageCache.count() : -1;
+            if (count >= 0) {
+                return count;
+            }
+
+            return countJS();
         }
 
         @Override
         public void save(Context context, Message... messages) {
+            MessageStoreCache messageCache = cache;
+            if (messageCache != null) {
+                messageCache.put(messages);
+            }
             if (!saveJS(messages)) {
                 CordovaLogger.w(TAG, "JS storage not available yet, will cache");
                 CacheManager.saveMessages(context, messages);
@@ -1813,6 +2752,35 @@ public class MobileMessagingCordova extends CordovaPlugin {
             CordovaLogger.e(TAG, "deleteAll is not implemented because it should not be called from within library");
         }
 
+        /**
+         * Enables the native cache of the JS storage, or disables it if the cache is null.
+         */
+        static void configureCache(@Nullable MessageStoreCache messageCache) {
+            cache = messageCache;
+        }
+
+        /**
+         * Handles a signal from JS that its storage has changed outside of the plugin:
+         * listed messages are removed from the cache, or the whole cache is dropped if no messages are listed.
+         */
+        static void invalidateCache(JSONArray args) throws JSONException {
+            MessageStoreCache messageCache = cache;
+            if (messageCache == null) {
+                return;
+            }
+
+            JSONArray messageIds = args.optJSONArray(0);
+            if (messageIds == null) {
+                messageCache.invalidate();
+                return;
+            }
+            List<String> ids = new ArrayList<>(messageIds.length());
+            for (int i = 0; i < messageIds.length(); i++) {
+                ids.add(messageIds.getString(i));
+            }
+            messageCache.remove(ids);
+        }
+
         static void register(Context context, JSONArray args, CallbackContext callbackContext) throws JSONException {
             if (args == null || args.getString(0) == null) {
                 throw new IllegalArgumentException("No method provided with args");
@@ -1852,6 +2820,9 @@ public class MobileMessagingCordova extends CordovaPlugin {
             synchronized (registeredCallbacks) {
                 registeredCallbacks.remove(method);
             }
+            if (EVENT_MESSAGESTORAGE_FIND_ALL.equals(method) || EVENT_MESSAGESTORAGE_COUNT.equals(method)) {
+                storageRequests.cancelAll();
+            }
         }
 
         @SuppressWarnings("UnusedReturnValue")
@@ -1869,33 +2840,86 @@ public class MobileMessagingCordova extends CordovaPlugin {
         }
 
         static List<Message> findAllJS() {
-            CallbackContext callback;
-            synchronized (registeredCallbacks) {
-                callback = registeredCallbacks.get(EVENT_MESSAGESTORAGE_FIND_ALL);
-            }
+            CallbackContext callback = registeredCallback(EVENT_MESSAGESTORAGE_FIND_ALL);
             if (callback == null) {
                 return null;
             }
 
-            synchronized (findAllResults) {
-                findAllResults.clear();
-                sendCallback(callback, new PluginResult(PluginResult.Status.OK, EVENT_MESSAGESTORAGE_FIND_ALL));
-                try {
-                    findAllResults.wait(SYNC_CALL_TIMEOUT_MS);
-                    if (!findAllResults.isEmpty()) {
-                        return MessageJson.resolveMessages(findAllResults.get(0));
-                    }
-                } catch (Exception e) {
-                    CordovaLogger.e(TAG, "Cannot find messages: " + e);
+            MessageStoreCache messageCache = cache;
+            MessageStoreCache.Fill fill = messageCache != null ? messageCache.startFill() : null;
+            try {
+                Object result = requestJS(callback, new JSONObject());
+                List<Message> messages = MessageJson.resolveMessages(result instanceof JSONArray ? (JSONArray) result : new JSONArray());
+                if (fill != null && messages != null) {
+                    messageCache.fill(fill, messages);
+                }
+                return messages;
+            } catch (Exception e) {
+                CordovaLogger.e(TAG, "Cannot find messages: " + e);
+            } finally {
+                if (fill != null) {
+                    // no-op after a successful fill, otherwise stops collecting saved messages
+                    messageCache.cancelFill(fill);
+                }
+            }
+            return new ArrayList<Message>();
+        }
+
+        /**
+         * Asks JS storage for the number of messages, so that messages do not have to cross the bridge.
+         */
+        static long countJS() {
+            CallbackContext callback = registeredCallback(EVENT_MESSAGESTORAGE_COUNT);
+            if (callback == null) {
+                List<Message> messages = findAllJS();
+                return messages != null ? messages.size() : 0;
+            }
+
+            try {
+                Object result = requestJS(callback, new JSONObject());
+                if (result instanceof Number) {
+                    return ((Number) result).longValue();
                 }
-                return new ArrayList<Message>();
+            } catch (Exception e) {
+                CordovaLogger.e(TAG, "Cannot count messages: " + e);
             }
+            return 0;
+        }
+
+        /**
+         * Sends a request with a new id to JS and waits for JS to call back with the same id.
+         */
+        @Nullable
+        private static Object requestJS(@NonNull CallbackContext callback, @NonNull JSONObject parameters) throws Exception {
+            StorageRequests.Request request = storageRequests.create();
+            parameters.put("requestId", request.id);
+            sendCallback(callback, new PluginResult(PluginResult.Status.OK, parameters));
+            return storageRequests.await(request);
+        }
+
+        /**
+         * Result of a storage request from JS: request id followed by the result, if any.
+         */
+        static void storageResult(JSONArray args) throws JSONException {
+            Object result = args.opt(1);
+            storageRequests.complete(args.getString(0), result == JSONObject.NULL ? null : result);
+        }
+
+        static void setRequestTimeout(long timeoutMillis) {
+            storageRequests.setTimeout(timeoutMillis);
+        }
+
+        /**
+         * Releases threads waiting for JS, no results can arrive once the WebView is gone.
+         */
+        static void cancelRequests() {
+            storageRequests.cancelAll();
         }
 
-        static void findAllJSResult(JSONArray result) {
-            synchronized (findAllResults) {
-                findAllResults.add(result);
-                findAllResults.notifyAll();
+        @Nullable
+        private static CallbackContext registeredCallback(String method) {
+            synchronized (registeredCallbacks) {
+                return registeredCallbacks.get(method);
             }
         }
 
@@ -0,0 +1,60 @@
+//
+//  PayloadBufferPool.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Keeps one payload buffer per thread, so that bridge payloads are built without allocating a new buffer each time.
+ * Buffers which grew larger than {@link #MAX_RETAINED_CAPACITY} are replaced by small ones when obtained again.
+ * <p>
+ * An obtained buffer must be used on a single thread and must not be used after its result is created,
+ * until it is obtained again.
+ */
+class PayloadBufferPool<T extends PayloadBufferPool.Buffer> {
+
+    static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    interface Buffer {
+        int capacity();
+
+        /**
+         * Empties the buffer before it is reused.
+         *
+         * @param release true if the current storage is too large to be kept and should be replaced
+         */
+        void reset(boolean release);
+    }
+
+    interface Factory<T> {
+        @NonNull
+        T create();
+    }
+
+    private final ThreadLocal<T> buffers;
+
+    PayloadBufferPool(@NonNull final Factory<T> factory) {
+        this.buffers = new ThreadLocal<T>() {
+            @Override
+            protected T initialValue() {
+                return factory.create();
+            }
+        };
+    }
+
+    /**
+     * Returns the buffer of the current thread, emptied.
+     */
+    @NonNull
+    T obtain() {
+        T buffer = buffers.get();
+        buffer.reset(buffer.capacity() > MAX_RETAINED_CAPACITY);
+        return buffer;
+    }
+}
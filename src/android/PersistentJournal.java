@@ -0,0 +1,333 @@
+//
+//  PersistentJournal.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Bounded append-only journal of string records backed by a memory-mapped file of fixed size,
+ * so that records survive the process being killed and appending does not need a system call.
+ * <p>
+ * File layout: header of magic, offset of the first record and offset of the end of data,
+ * followed by records each prefixed with its length, kept in a ring: a record which does not fit before the end
+ * of the file is written at the beginning of the data area, after a wrap marker if there is room for one.
+ * A record becomes visible only after the header is updated. Dropping the oldest records only moves the offset
+ * of the first record, which is written before their space is reused, so appending to a full journal costs the same
+ * as appending to an empty one and a crash never leaves the header pointing at overwritten records.
+ * If the file cannot be mapped, records are kept in memory with the same size limit.
+ */
+class PersistentJournal {
+
+    private static final String TAG = "PersistentJournal";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int MAGIC = 0x4d4d4a31;
+    private static final int HEADER_SIZE = 12;
+    private static final int RECORD_HEADER_SIZE = 4;
+    private static final int WRAP = -1;
+
+    /**
+     * What to do with a new record when the journal is full.
+     */
+    enum OverflowPolicy {
+        /**
+         * Oldest records are removed until the new one fits.
+         */
+        DROP_OLDEST,
+        /**
+         * New record is dropped.
+         */
+        DROP_NEWEST;
+
+        @NonNull
+        static OverflowPolicy fromString(@Nullable String value, @NonNull OverflowPolicy defaultPolicy) {
+            if (value == null) {
+                return defaultPolicy;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.US));
+            } catch (IllegalArgumentException e) {
+                CordovaLogger.w(TAG, "Unknown overflow policy " + value + ", using " + defaultPolicy);
+                return defaultPolicy;
+            }
+        }
+    }
+
+    private final File file;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+
+    private boolean opened;
+    @Nullable
+    private MappedByteBuffer buffer;
+    private int start = HEADER_SIZE;
+    private int end = HEADER_SIZE;
+
+    private final ArrayDeque<byte[]> memoryRecords = new ArrayDeque<>();
+    private int memorySize;
+
+    private long dropped;
+
+    PersistentJournal(@NonNull File file, int capacity, @NonNull OverflowPolicy overflowPolicy) {
+        this.file = file;
+        this.capacity = Math.max(capacity, HEADER_SIZE + RECORD_HEADER_SIZE);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Appends a record to the journal.
+     *
+     * @return false if the record was dropped because the journal is full
+     */
+    synchronized boolean append(@NonNull String record) {
+        open();
+        byte[] bytes = record.getBytes(UTF_8);
+        int frameSize = RECORD_HEADER_SIZE + bytes.length;
+        if (frameSize > capacity - HEADER_SIZE) {
+            dropped++;
+            CordovaLogger.w(TAG, "Record of " + bytes.length + " bytes does not fit into " + file.getName() + ", dropping");
+            return false;
+        }
+
+        if (buffer == null) {
+            return appendToMemory(bytes, frameSize);
+        }
+
+        int position = freePosition(frameSize);
+        if (position < 0) {
+            if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                dropped++;
+                CordovaLogger.w(TAG, file.getName() + " is full, dropping new record");
+                return false;
+            }
+            while (position < 0) {
+                start = nextRecord(start);
+                dropped++;
+                if (start == end) {
+                    start = HEADER_SIZE;
+                    end = HEADER_SIZE;
+                }
+                position = freePosition(frameSize);
+            }
+            writeHeader();
+        }
+
+        if (position != end && capacity - end >= RECORD_HEADER_SIZE) {
+            buffer.putInt(end, WRAP);
+        }
+        buffer.putInt(position, bytes.length);
+        write(buffer, position + RECORD_HEADER_SIZE, bytes);
+        end = position + frameSize;
+        writeHeader();
+        return true;
+    }
+
+    /**
+     * Removes all records from the journal and returns them in the order they were appended.
+     */
+    @NonNull
+    synchronized List<String> drain() {
+        open();
+        List<String> records = new ArrayList<>();
+        if (buffer == null) {
+            for (byte[] bytes : memoryRecords) {
+                records.add(new String(bytes, UTF_8));
+            }
+            memoryRecords.clear();
+            memorySize = 0;
+            return records;
+        }
+
+        records.addAll(readRecords(buffer, start, end, capacity));
+        start = HEADER_SIZE;
+        end = HEADER_SIZE;
+        writeHeader();
+        return records;
+    }
+
+    synchronized boolean isEmpty() {
+        open();
+        return buffer == null ? memoryRecords.isEmpty() : start == end;
+    }
+
+    /**
+     * Number of records dropped since the journal was opened.
+     */
+    synchronized long getDropped() {
+        return dropped;
+    }
+
+    private boolean appendToMemory(byte[] bytes, int frameSize) {
+        while (memorySize + frameSize > capacity - HEADER_SIZE) {
+            if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                dropped++;
+                return false;
+            }
+            memorySize -= RECORD_HEADER_SIZE + memoryRecords.removeFirst().length;
+            dropped++;
+        }
+        memoryRecords.addLast(bytes);
+        memorySize += frameSize;
+        return true;
+    }
+
+    /**
+     * Offset where a frame of the given size can be written, or -1 if the oldest records have to be dropped first.
+     * The end never catches up with the start, so that a full journal is not taken for an empty one.
+     */
+    private int freePosition(int frameSize) {
+        if (start <= end) {
+            if (end + frameSize <= capacity) {
+                return end;
+            }
+            return HEADER_SIZE + frameSize < start ? HEADER_SIZE : -1;
+        }
+        return end + frameSize < start ? end : -1;
+    }
+
+    private int nextRecord(int position) {
+        if (capacity - position < RECORD_HEADER_SIZE || buffer.getInt(position) == WRAP) {
+            position = HEADER_SIZE;
+        }
+        return position + RECORD_HEADER_SIZE + buffer.getInt(position);
+    }
+
+    private void writeHeader() {
+        buffer.putInt(4, start);
+        buffer.putInt(8, end);
+    }
+
+    private void open() {
+        if (opened) {
+            return;
+        }
+        opened = true;
+
+        List<String> existing = new ArrayList<>();
+        RandomAccessFile randomAccessFile = null;
+        try {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Cannot create " + parent);
+            }
+
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            long length = randomAccessFile.length();
+            if (length == capacity) {
+                buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                if (hasValidHeader(buffer, capacity)) {
+                    start = buffer.getInt(4);
+                    end = buffer.getInt(8);
+                    if (start == end) {
+                        start = HEADER_SIZE;
+                        end = HEADER_SIZE;
+                        writeHeader();
+                    }
+                    return;
+                }
+            } else {
+                if (length >= HEADER_SIZE) {
+                    // size limit has changed, records are moved into the resized file
+                    MappedByteBuffer previous = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+                    if (hasValidHeader(previous, (int) length)) {
+                        existing.addAll(readRecords(previous, previous.getInt(4), previous.getInt(8), (int) length));
+                    }
+                }
+                randomAccessFile.setLength(capacity);
+                buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            }
+
+            buffer.putInt(0, MAGIC);
+            start = HEADER_SIZE;
+            end = HEADER_SIZE;
+            writeHeader();
+        } catch (IOException e) {
+            CordovaLogger.e(TAG, "Cannot open " + file + ", records will be kept in memory", e);
+            buffer = null;
+        } finally {
+            if (randomAccessFile != null) {
+                try {
+                    // mapping stays valid after the file is closed
+                    randomAccessFile.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        for (String record : existing) {
+            append(record);
+        }
+    }
+
+    private static boolean hasValidHeader(MappedByteBuffer source, int length) {
+        if (source.getInt(0) != MAGIC) {
+            return false;
+        }
+        int recordsStart = source.getInt(4);
+        int recordsEnd = source.getInt(8);
+        if (recordsStart < HEADER_SIZE || recordsEnd < HEADER_SIZE || recordsStart > length || recordsEnd > length) {
+            CordovaLogger.w(TAG, "Journal header is corrupted, discarding records");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads records from the first one up to the end of data, wrapping around at most once.
+     *
+     * @param length size of the file
+     */
+    private static List<String> readRecords(MappedByteBuffer source, int from, int to, int length) {
+        List<String> records = new ArrayList<>();
+        int position = from;
+        boolean wrapped = from <= to;
+        while (position != to) {
+            if (!wrapped && (length - position < RECORD_HEADER_SIZE || source.getInt(position) == WRAP)) {
+                position = HEADER_SIZE;
+                wrapped = true;
+                continue;
+            }
+            int limit = wrapped ? to : length;
+            int size = position + RECORD_HEADER_SIZE <= limit ? source.getInt(position) : -1;
+            if (size < 0 || position + RECORD_HEADER_SIZE + size > limit) {
+                CordovaLogger.w(TAG, "Journal record at " + position + " is corrupted, discarding the rest");
+                break;
+            }
+            records.add(new String(read(source, position + RECORD_HEADER_SIZE, size), UTF_8));
+            position += RECORD_HEADER_SIZE + size;
+        }
+        return records;
+    }
+
+    private static byte[] read(ByteBuffer source, int position, int size) {
+        ByteBuffer view = source.duplicate();
+        view.position(position);
+        byte[] bytes = new byte[size];
+        view.get(bytes);
+        return bytes;
+    }
+
+    private static void write(ByteBuffer target, int position, byte[] bytes) {
+        ByteBuffer view = target.duplicate();
+        view.position(position);
+        view.put(bytes);
+    }
+}
@@ -0,0 +1,194 @@
+//
+//  PluginAction.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import org.apache.cordova.CallbackContext;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Locale;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Describes a single bridge action of the plugin: its name, the thread it has to be executed on
+ * and the arguments it expects from JS. Actions are registered once in a table keyed by name,
+ * so dispatching a call is a single hash lookup instead of a chain of string comparisons.
+ */
+public class PluginAction {
+
+    /**
+     * Bridge action implementation.
+     */
+    public interface Handler {
+        void execute(JSONArray args, CallbackContext callbackContext) throws JSONException;
+    }
+
+    /**
+     * Thread on which the handler is invoked.
+     */
+    public enum ThreadAffinity {
+        /**
+         * Invoked directly on the Cordova bridge thread. Handlers are expected to be cheap
+         * or to manage their own background work.
+         */
+        CALLER,
+        /**
+         * Invoked on the activity UI thread.
+         */
+        UI,
+        /**
+         * Invoked on the network lane of {@link PluginScheduler}.
+         */
+        NETWORK,
+        /**
+         * Invoked on the storage lane of {@link PluginScheduler}, used for handlers doing blocking I/O.
+         */
+        STORAGE,
+        /**
+         * Invoked on the lane of {@link PluginScheduler} dedicated to cheap fire-and-forget work.
+         */
+        LIGHT
+    }
+
+    /**
+     * How the action responds to its callback.
+     */
+    public enum ResultMode {
+        /**
+         * Exactly one result is sent eventually.
+         */
+        SINGLE,
+        /**
+         * No result is sent unless the call fails.
+         */
+        NONE,
+        /**
+         * Callback is kept and receives results for as long as the plugin lives.
+         */
+        STREAM
+    }
+
+    /**
+     * Expected type of a single positional argument.
+     */
+    public enum ArgType {
+        ANY,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        OBJECT,
+        ARRAY;
+
+        boolean accepts(@Nullable Object value) {
+            if (value == null || value == JSONObject.NULL) {
+                return true;
+            }
+            switch (this) {
+                case STRING:
+                    return value instanceof String;
+                case NUMBER:
+                    return value instanceof Number;
+                case BOOLEAN:
+                    return value instanceof Boolean;
+                case OBJECT:
+                    return value instanceof JSONObject;
+                case ARRAY:
+                    return value instanceof JSONArray;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * Argument schema of an action: number of mandatory positional arguments and their types.
+     * Optional trailing arguments are not type checked.
+     */
+    public static class ArgumentSchema {
+
+        private static final ArgumentSchema NONE = new ArgumentSchema(false);
+
+        private final ArgType[] required;
+        private final boolean variadic;
+
+        private ArgumentSchema(boolean variadic, ArgType... required) {
+            this.required = required;
+            this.variadic = variadic;
+        }
+
+        /**
+         * Action does not read any arguments.
+         */
+        public static ArgumentSchema none() {
+            return NONE;
+        }
+
+        /**
+         * Action reads an arbitrary list of arguments and validates it on its own.
+         */
+        public static ArgumentSchema any() {
+            return NONE;
+        }
+
+        /**
+         * Action expects at least the provided positional arguments.
+         */
+        public static ArgumentSchema of(ArgType... required) {
+            return new ArgumentSchema(false, required);
+        }
+
+        /**
+         * Action expects one or more arguments of the same type.
+         */
+        public static ArgumentSchema variadic(ArgType type) {
+            return new ArgumentSchema(true, type);
+        }
+
+        /**
+         * Validates provided arguments against the schema.
+         *
+         * @return description of the first violation or null if arguments are valid
+         */
+        @Nullable
+        String validate(@NonNull JSONArray args) {
+            if (args.length() < required.length) {
+                return "expected at least " + required.length + " argument(s), got " + args.length();
+            }
+            int checked = variadic ? args.length() : required.length;
+            for (int i = 0; i < checked; i++) {
+                ArgType type = required[Math.min(i, required.length - 1)];
+                if (!type.accepts(args.opt(i))) {
+                    return "argument " + i + " is not of type " + type.name().toLowerCase(Locale.US);
+                }
+            }
+            return null;
+        }
+    }
+
+    final String name;
+    final ThreadAffinity threadAffinity;
+    final ArgumentSchema argumentSchema;
+    final ResultMode resultMode;
+    final Handler handler;
+
+    PluginAction(@NonNull String name,
+                 @NonNull ThreadAffinity threadAffinity,
+                 @NonNull ArgumentSchema argumentSchema,
+                 @NonNull ResultMode resultMode,
+                 @NonNull Handler handler) {
+        this.name = name;
+        this.threadAffinity = threadAffinity;
+        this.argumentSchema = argumentSchema;
+        this.resultMode = resultMode;
+        this.handler = handler;
+    }
+}
@@ -0,0 +1,164 @@
+//
+//  PluginScheduler.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import android.os.Process;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Plugin-owned background scheduler with separate lanes, so that slow network calls
+ * do not delay storage access or cheap fire-and-forget work scheduled after them.
+ * Each lane is a fixed size thread pool with an unbounded FIFO queue, idle threads are released after a timeout.
+ */
+public class PluginScheduler {
+
+    private static final String TAG = "PluginScheduler";
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    public static final int DEFAULT_NETWORK_THREADS = 2;
+    public static final int DEFAULT_STORAGE_THREADS = 1;
+    public static final int DEFAULT_LIGHT_THREADS = 1;
+
+    public enum Lane {
+        /**
+         * Calls to the SDK which wait for a backend response.
+         */
+        NETWORK,
+        /**
+         * Local storage reads and writes.
+         */
+        STORAGE,
+        /**
+         * Cheap fire-and-forget calls which the SDK persists and delivers on its own.
+         */
+        LIGHT
+    }
+
+    private static volatile PluginScheduler instance;
+
+    private final Map<Lane, ThreadPoolExecutor> executors = new EnumMap<>(Lane.class);
+
+    private PluginScheduler(int networkThreads, int storageThreads, int lightThreads) {
+        executors.put(Lane.NETWORK, createExecutor(Lane.NETWORK, networkThreads));
+        executors.put(Lane.STORAGE, createExecutor(Lane.STORAGE, storageThreads));
+        executors.put(Lane.LIGHT, createExecutor(Lane.LIGHT, lightThreads));
+    }
+
+    @NonNull
+    public static PluginScheduler getInstance() {
+        if (instance == null) {
+            synchronized (PluginScheduler.class) {
+                if (instance == null) {
+                    instance = new PluginScheduler(DEFAULT_NETWORK_THREADS, DEFAULT_STORAGE_THREADS, DEFAULT_LIGHT_THREADS);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Sets number of threads of each lane. Already queued tasks are kept.
+     */
+    public static void configure(int networkThreads, int storageThreads, int lightThreads) {
+        PluginScheduler scheduler = getInstance();
+        scheduler.resize(Lane.NETWORK, networkThreads);
+        scheduler.resize(Lane.STORAGE, storageThreads);
+        scheduler.resize(Lane.LIGHT, lightThreads);
+    }
+
+    public void execute(@NonNull Lane lane, @NonNull Runnable runnable) {
+        executors.get(lane).execute(runnable);
+    }
+
+    /**
+     * Number of tasks waiting in the lane queue, not counting the ones being executed.
+     */
+    public int queueDepth(@NonNull Lane lane) {
+        return executors.get(lane).getQueue().size();
+    }
+
+    @NonNull
+    public JSONObject toJSON() throws JSONException {
+        JSONObject json = new JSONObject();
+        for (Map.Entry<Lane, ThreadPoolExecutor> e : executors.entrySet()) {
+            ThreadPoolExecutor executor = e.getValue();
+            JSONObject lane = new JSONObject();
+            lane.put("threads", executor.getMaximumPoolSize());
+            lane.put("active", executor.getActiveCount());
+            lane.put("queued", executor.getQueue().size());
+            lane.put("completed", executor.getCompletedTaskCount());
+            json.put(e.getKey().name().toLowerCase(Locale.US), lane);
+        }
+        return json;
+    }
+
+    private synchronized void resize(Lane lane, int threads) {
+        int size = Math.max(1, threads);
+        ThreadPoolExecutor executor = executors.get(lane);
+        if (size > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(size);
+            executor.setCorePoolSize(size);
+        } else {
+            executor.setCorePoolSize(size);
+            executor.setMaximumPoolSize(size);
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor(final Lane lane, int threads) {
+        int size = Math.max(1, threads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                size,
+                size,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new LaneThreadFactory(lane));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static class LaneThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+        private final String prefix;
+
+        LaneThreadFactory(Lane lane) {
+            this.prefix = "MMCordova-" + lane.name().toLowerCase(Locale.US) + "-";
+        }
+
+        @Override
+        public Thread newThread(@NonNull final Runnable runnable) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    try {
+                        runnable.run();
+                    } catch (Throwable t) {
+                        CordovaLogger.e(TAG, "Uncaught error in " + Thread.currentThread().getName(), t);
+                    }
+                }
+            }, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
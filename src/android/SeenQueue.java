@@ -0,0 +1,313 @@
+//
+//  SeenQueue.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import org.infobip.mobile.messaging.MobileMessaging;
+import org.infobip.mobile.messaging.inbox.MobileInbox;
+import org.infobip.mobile.messaging.mobileapi.MobileMessagingError;
+import org.infobip.mobile.messaging.mobileapi.Result;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Coalesces requests to mark messages as seen. Message ids are collected per external user id for inbox messages,
+ * and separately for push messages, duplicates are dropped, and a single request is sent once the batch is full
+ * or the delay since its first id has passed. Each caller is answered with its own ids when its batch completes.
+ * <p>
+ * Pending ids are kept in a journal until their batch completes, so that they are sent after the process is restarted.
+ * Ids of a failed batch stay in the journal and are sent again with the next batch for the same key, or after restart.
+ */
+class SeenQueue {
+
+    private static final String TAG = "SeenQueue";
+    static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    static final int DEFAULT_MAX_DELAY_MILLIS = 1000;
+    private static final String JOURNAL_DIRECTORY = "mobile-messaging-cordova";
+    private static final String JOURNAL_NAME = "seen.journal";
+    private static final int JOURNAL_CAPACITY = 64 * 1024;
+    private static final String PUSH_KEY = "push";
+    private static final String INBOX_KEY_PREFIX = "inbox:";
+
+    private static volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private static volatile int maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+    private static volatile SeenQueue instance;
+    @Nullable
+    private static volatile InboxListener inboxListener;
+
+    /**
+     * Answer to a single caller.
+     */
+    interface Callback {
+        void onSuccess(@NonNull JSONArray messageIds);
+
+        void onError(@NonNull String message);
+    }
+
+    /**
+     * Notified after inbox messages were marked as seen on the server.
+     */
+    interface InboxListener {
+        void onSeen(@NonNull String externalUserId, @NonNull String[] messageIds);
+    }
+
+    private static class Waiter {
+        final List<String> messageIds;
+        final Callback callback;
+
+        Waiter(List<String> messageIds, Callback callback) {
+            this.messageIds = messageIds;
+            this.callback = callback;
+        }
+    }
+
+    private class Batch implements Runnable {
+        final String key;
+        final Set<String> messageIds = new LinkedHashSet<>();
+        final List<Waiter> waiters = new ArrayList<>();
+
+        Batch(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            flush(this);
+        }
+    }
+
+    private final Context context;
+    private final PersistentJournal journal;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<String, Batch> open = new LinkedHashMap<>();
+    private final Set<Batch> inFlight = new HashSet<>();
+    private final Map<String, Set<String>> failed = new LinkedHashMap<>();
+
+    private SeenQueue(Context context) {
+        this.context = context;
+        File file = new File(new File(context.getFilesDir(), JOURNAL_DIRECTORY), JOURNAL_NAME);
+        this.journal = new PersistentJournal(file, JOURNAL_CAPACITY, PersistentJournal.OverflowPolicy.DROP_OLDEST);
+    }
+
+    static void configure(int batchSize, int delayMillis) {
+        maxBatchSize = Math.max(1, batchSize);
+        maxDelayMillis = Math.max(0, delayMillis);
+    }
+
+    /**
+     * Returns the queue, which sends ids left pending by the previous process when it is first created.
+     */
+    @NonNull
+    static SeenQueue getInstance(@NonNull Context context) {
+        SeenQueue queue = instance;
+        if (queue == null) {
+            synchronized (SeenQueue.class) {
+                queue = instance;
+                if (queue == null) {
+                    queue = new SeenQueue(context.getApplicationContext());
+                    queue.restore();
+                    instance = queue;
+                }
+            }
+        }
+        return queue;
+    }
+
+    static void setInboxListener(@Nullable InboxListener listener) {
+        inboxListener = listener;
+    }
+
+    /**
+     * Queues push messages to be marked as seen.
+     */
+    void markMessagesSeen(@NonNull String[] messageIds, @Nullable Callback callback) {
+        enqueue(PUSH_KEY, messageIds, callback);
+    }
+
+    /**
+     * Queues inbox messages of the user to be marked as seen.
+     */
+    void setInboxMessagesSeen(@NonNull String externalUserId, @NonNull String[] messageIds, @Nullable Callback callback) {
+        enqueue(INBOX_KEY_PREFIX + externalUserId, messageIds, callback);
+    }
+
+    private void enqueue(String key, String[] messageIds, @Nullable Callback callback) {
+        List<String> ids = new ArrayList<>(messageIds.length);
+        for (String messageId : messageIds) {
+            if (messageId != null) {
+                ids.add(messageId);
+            }
+        }
+
+        Batch full = null;
+        synchronized (this) {
+            Batch batch = open.get(key);
+            if (batch == null) {
+                batch = new Batch(key);
+                open.put(key, batch);
+                handler.postDelayed(batch, maxDelayMillis);
+            }
+            Set<String> retried = failed.remove(key);
+            if (retried != null) {
+                batch.messageIds.addAll(retried);
+            }
+            batch.messageIds.addAll(ids);
+            if (callback != null) {
+                batch.waiters.add(new Waiter(ids, callback));
+            }
+            journal.append(record(key, ids));
+            if (batch.messageIds.size() >= maxBatchSize) {
+                full = batch;
+            }
+        }
+        if (full != null) {
+            flush(full);
+        }
+    }
+
+    private void flush(final Batch batch) {
+        synchronized (this) {
+            if (open.get(batch.key) != batch) {
+                return;
+            }
+            open.remove(batch.key);
+            handler.removeCallbacks(batch);
+            inFlight.add(batch);
+        }
+
+        final String[] messageIds = batch.messageIds.toArray(new String[batch.messageIds.size()]);
+        if (messageIds.length == 0) {
+            complete(batch, null);
+            return;
+        }
+        CordovaLogger.d(TAG, "Marking " + messageIds.length + " messages as seen for " + batch.waiters.size() + " callers");
+
+        if (PUSH_KEY.equals(batch.key)) {
+            PluginScheduler.getInstance().execute(PluginScheduler.Lane.LIGHT, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        MobileMessaging.getInstance(context).setMessagesSeen(messageIds);
+                        complete(batch, null);
+                    } catch (Exception e) {
+                        complete(batch, e.getMessage() != null ? e.getMessage() : e.toString());
+                    }
+                }
+            });
+            return;
+        }
+
+        final String externalUserId = batch.key.substring(INBOX_KEY_PREFIX.length());
+        PluginScheduler.getInstance().execute(PluginScheduler.Lane.NETWORK, new Runnable() {
+            @Override
+            public void run() {
+                MobileInbox.getInstance(context).setSeen(externalUserId, messageIds, new MobileMessaging.ResultListener<String[]>() {
+                    @Override
+                    public void onResult(Result<String[], MobileMessagingError> result) {
+                        if (!result.isSuccess()) {
+                            complete(batch, result.getError().getMessage());
+                            return;
+                        }
+                        InboxListener listener = inboxListener;
+                        if (listener != null) {
+                            listener.onSeen(externalUserId, messageIds);
+                        }
+                        complete(batch, null);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Answers the callers of the batch and removes its ids from the journal, unless the batch failed.
+     */
+    private void complete(Batch batch, @Nullable String error) {
+        synchronized (this) {
+            inFlight.remove(batch);
+            if (error != null && !batch.messageIds.isEmpty()) {
+                Set<String> retried = failed.get(batch.key);
+                if (retried == null) {
+                    retried = new LinkedHashSet<>();
+                    failed.put(batch.key, retried);
+                }
+                retried.addAll(batch.messageIds);
+            }
+            journal.drain();
+            for (Map.Entry<String, Set<String>> pending : failed.entrySet()) {
+                journal.append(record(pending.getKey(), pending.getValue()));
+            }
+            for (Batch pending : inFlight) {
+                journal.append(record(pending.key, pending.messageIds));
+            }
+            for (Batch pending : open.values()) {
+                journal.append(record(pending.key, pending.messageIds));
+            }
+        }
+
+        if (error != null) {
+            CordovaLogger.w(TAG, "Cannot mark " + batch.messageIds.size() + " messages as seen: " + error);
+        }
+        for (Waiter waiter : batch.waiters) {
+            if (error == null) {
+                waiter.callback.onSuccess(new JSONArray(waiter.messageIds));
+            } else {
+                waiter.callback.onError(error);
+            }
+        }
+    }
+
+    private void restore() {
+        List<String> records = journal.drain();
+        for (String record : records) {
+            try {
+                JSONObject json = new JSONObject(record);
+                JSONArray ids = json.getJSONArray("messageIds");
+                String[] messageIds = new String[ids.length()];
+                for (int i = 0; i < messageIds.length; i++) {
+                    messageIds[i] = ids.optString(i, null);
+                }
+                enqueue(json.getString("key"), messageIds, null);
+            } catch (JSONException e) {
+                CordovaLogger.w(TAG, "Cannot read pending seen messages: " + e.getMessage());
+            }
+        }
+        if (!records.isEmpty()) {
+            CordovaLogger.d(TAG, "Restored " + records.size() + " pending seen requests");
+        }
+    }
+
+    private static String record(String key, Collection<String> messageIds) {
+        try {
+            return new JSONObject()
+                    .put("key", key)
+                    .put("messageIds", new JSONArray(messageIds))
+                    .toString();
+        } catch (JSONException e) {
+            return "{}";
+        }
+    }
+}
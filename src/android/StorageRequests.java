@@ -0,0 +1,126 @@
+//
+//  StorageRequests.java
+//  MobileMessagingCordova
+//
+// Copyright (c) 2016-2025 Infobip Limited
+// Licensed under the Apache License, Version 2.0
+//
+
+package org.apache.cordova.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Outstanding requests from native code to the custom JS message storage.
+ * <p>
+ * Each request gets its own id which JS sends back with the result, so any number of threads can wait for
+ * their own results at the same time. A request is removed when it completes, times out or is cancelled,
+ * results which arrive after that are ignored.
+ */
+class StorageRequests {
+
+    private static final String TAG = "StorageRequests";
+    static final long DEFAULT_TIMEOUT_MS = 30000;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final Map<String, Request> pending = new ConcurrentHashMap<>();
+    private volatile long timeoutMillis = DEFAULT_TIMEOUT_MS;
+
+    /**
+     * Single request waiting for its result from JS.
+     */
+    static class Request {
+        @NonNull
+        final String id;
+        private final CountDownLatch done = new CountDownLatch(1);
+        @Nullable
+        private volatile Object result;
+        private volatile boolean cancelled;
+
+        Request(@NonNull String id) {
+            this.id = id;
+        }
+
+        private void complete(@Nullable Object result) {
+            this.result = result;
+            done.countDown();
+        }
+
+        private void cancel() {
+            cancelled = true;
+            done.countDown();
+        }
+    }
+
+    void setTimeout(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis > 0 ? timeoutMillis : DEFAULT_TIMEOUT_MS;
+    }
+
+    @NonNull
+    Request create() {
+        Request request = new Request(String.valueOf(nextId.incrementAndGet()));
+        pending.put(request.id, request);
+        return request;
+    }
+
+    /**
+     * Waits for the result of the request.
+     *
+     * @throws TimeoutException      if JS does not answer within the timeout
+     * @throws CancellationException if the request was cancelled
+     */
+    @Nullable
+    Object await(@NonNull Request request) throws TimeoutException, InterruptedException {
+        try {
+            if (!request.done.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new TimeoutException("JS storage did not answer request " + request.id + " in " + timeoutMillis + " ms");
+            }
+            if (request.cancelled) {
+                throw new CancellationException("Request " + request.id + " was cancelled");
+            }
+            return request.result;
+        } finally {
+            pending.remove(request.id);
+        }
+    }
+
+    /**
+     * Completes the request with the result received from JS.
+     *
+     * @return false if there is no such outstanding request
+     */
+    boolean complete(@NonNull String requestId, @Nullable Object result) {
+        Request request = pending.remove(requestId);
+        if (request == null) {
+            CordovaLogger.w(TAG, "Ignoring result of unknown or expired request " + requestId);
+            return false;
+        }
+        request.complete(result);
+        return true;
+    }
+
+    /**
+     * Releases all waiting threads, e.g. when the WebView goes away and no results can arrive anymore.
+     */
+    void cancelAll() {
+        List<Request> requests = new ArrayList<>(pending.values());
+        pending.clear();
+        for (Request request : requests) {
+            request.cancel();
+        }
+        if (!requests.isEmpty()) {
+            CordovaLogger.d(TAG, "Cancelled " + requests.size() + " outstanding requests");
+        }
+    }
+}
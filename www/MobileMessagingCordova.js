@@ -6,7 +6,7 @@
 // Licensed under the Apache License, Version 2.0
 //
 
-var supportedEvents = ["messageReceived", "notificationTapped", "tokenReceived", "registrationUpdated", "actionTapped", "installationUpdated", "userUpdated", "personalized", "depersonalized", "deeplink", "inAppChat.unreadMessageCounterUpdated", "inAppChat.availabilityUpdated"];
+var supportedEvents = ["messageReceived", "notificationTapped", "tokenReceived", "registrationUpdated", "actionTapped", "installationUpdated", "userUpdated", "personalized", "depersonalized", "deeplink", "inAppChat.unreadMessageCounterUpdated", "inAppChat.availabilityUpdated", "inbox.updated"];
 var eventHandlers = {};
 
 function execEventHandlerIfExists(parameters) {
@@ -28,6 +28,116 @@ function execEventHandlerIfExists(parameters) {
     });
 }
 
+/**
+ * Handles a message from the native event receiver, which is either a single event
+ * or a batch of events coalesced on Android: {events: [[eventName, ...parameters], ...]}.
+ */
+function execEventHandlers(message) {
+    if (message != null && Array.isArray(message.events)) {
+        message.events.forEach(execEventHandlerIfExists);
+        return;
+    }
+    execEventHandlerIfExists(message);
+}
+
+function isAndroid() {
+    return typeof cordova !== 'undefined' && cordova.platformId === 'android';
+}
+
+var binaryPayloadStats = {payloads: 0, bytes: 0, records: 0, decodeMillis: 0};
+
+function now() {
+    return typeof performance !== 'undefined' && performance.now ? performance.now() : Date.now();
+}
+
+function utf8Decode(bytes) {
+    if (typeof TextDecoder !== 'undefined') {
+        return new TextDecoder('utf-8').decode(bytes);
+    }
+    var binary = '';
+    for (var i = 0; i < bytes.length; i += 0x8000) {
+        binary += String.fromCharCode.apply(null, bytes.subarray(i, i + 0x8000));
+    }
+    return decodeURIComponent(escape(binary));
+}
+
+/**
+ * Decodes a binary frame produced by BinaryPayloadEncoder on Android, see its documentation for the layout.
+ * Accepts an ArrayBuffer or its base64 form, which is how binary results arrive inside batch results.
+ * Any other value, or data which is not a frame, is returned as is.
+ */
+function decodeBinaryPayload(value) {
+    var data = value;
+    if (typeof value === 'string') {
+        if (value.lastIndexOf('TU1CM', 0) !== 0) { // base64 of "MMB1"
+            return value;
+        }
+        try {
+            var binary = atob(value);
+            var bytes = new Uint8Array(binary.length);
+            for (var b = 0; b < binary.length; b++) {
+                bytes[b] = binary.charCodeAt(b);
+            }
+            data = bytes.buffer;
+        } catch (e) {
+            return value;
+        }
+    }
+    if (!(data instanceof ArrayBuffer) || data.byteLength < 16) {
+        return value;
+    }
+    var view = new DataView(data);
+    if (view.getUint32(0) !== 0x4D4D4231) { // "MMB1"
+        return value;
+    }
+
+    var started = now();
+    var offset = 4;
+    function readString() {
+        var length = view.getUint32(offset);
+        var text = utf8Decode(new Uint8Array(data, offset + 4, length));
+        offset += 4 + length;
+        return text;
+    }
+    var header = readString();
+    var recordsField = readString();
+    var count = view.getUint32(offset);
+    offset += 4;
+    var records = new Array(count);
+    for (var i = 0; i < count; i++) {
+        records[i] = JSON.parse(readString());
+    }
+
+    var result = records;
+    if (recordsField) {
+        result = header ? JSON.parse(header) : {};
+        result[recordsField] = records;
+    }
+    binaryPayloadStats.payloads++;
+    binaryPayloadStats.bytes += data.byteLength;
+    binaryPayloadStats.records += count;
+    binaryPayloadStats.decodeMillis += now() - started;
+    return result;
+}
+
+function binaryPayloadCallback(callback) {
+    return function (result) {
+        if (typeof callback === 'function') {
+            callback(decodeBinaryPayload(result));
+        }
+    };
+}
+
+function deliverBatchResult(call, ok, result) {
+    if (!call) {
+        return;
+    }
+    var handler = ok ? call.success : call.error;
+    if (typeof handler === 'function') {
+        handler(result);
+    }
+}
+
 function isEmpty(obj) {
     for (var prop in obj) {
         if (obj.hasOwnProperty(prop))
@@ -60,9 +170,39 @@ var MobileMessagingCordova = function () {
  *          stop: function() {},                           // Called when storage should be deinitialized
  *          save: function(messages) {},                   // Called with array of message objects to save
  *          find: function(messageId, callback) {},        // Called to find message by ID, must call callback(message) with found message
- *          findAll: function(callback) {}                 // Called to retrieve all messages, must call callback(messages) with array of messages
+ *          findAll: function(callback) {},                // Called to retrieve all messages, must call callback(messages) with array of messages
+ *          count: function(callback) {}                   // Optional, Android only. Called to count messages, must call callback(count) with number of messages
+ *      },
+ *      messageStorageOptions: <Object; Android only, settings of custom message storage> {
+ *          nativeCacheEnabled: <Boolean; set to true to mirror saved messages natively, so that SDK reads do not wait for JS. Default: false>,
+ *          nativeCacheMaxSizeKb: <Number; size limit of the native mirror, it stops answering reads once exceeded. Default: 1024>,
+ *          requestTimeoutMs: <Number; how long native code waits for findAll and count callbacks. Default: 30000>
  *      },
  *      defaultMessageStorage: <Boolean; set to true to use built-in message storage>,
+ *      defaultMessageStorageOptions: <Object; Android only, settings of built-in message storage> {
+ *          searchableCustomPayloadKeys: <Array<String>; custom payload keys whose values are included in message search>,
+ *          retention: <Object; limits enforced by deleting the oldest messages in background, missing or 0 means no limit> {
+ *              maxCount: <Number; maximum number of stored messages>,
+ *              maxAgeDays: <Number; messages sent earlier are deleted>,
+ *              maxSizeKb: <Number; maximum size of stored messages>
+ *          }
+ *      },
+ *      inboxOptions: <Object; Android only, settings of inbox fetching> {
+ *          nativeCacheEnabled: <Boolean; set to true to return the last fetched inbox for the same external user ID and filter options
+ *                               right away, the inbox is fetched again in background and "inbox.updated" event is sent if it changed.
+ *                               Cache is cleared on depersonalization and cleanup. Default: false>,
+ *          nativeCacheTtlSeconds: <Number; cached inbox older than this is not returned. Default: 86400>,
+ *          nativeCacheMaxSizeKb: <Number; maximum size of cached inbox pages. Default: 512>
+ *      },
+ *      bridgeOptions: <Object; Android only, settings of the native bridge> {
+ *          binaryPayloads: <Boolean; set to true to deliver inbox pages and default storage findAll, findPage and findAllStream results
+ *                           as binary frames of length-prefixed JSON records instead of a single JSON document. Decoding is transparent,
+ *                           getBinaryPayloadStats and getActionMetrics can be used to compare both modes. Default: false>
+ *      },
+ *      customEventOptions: <Object; Android only, settings of events sent with submitEvent> {
+ *          coalescedDefinitionIds: <Array<String>; definition IDs of events where only the occurrence matters, e.g. screen views.
+ *                                   Identical events with these IDs are sent once per buffered batch>
+ *      },
  *      userDataJwt: <String; JWT token for authorization of user data related operations>,
  *      trustedDomains: <Array<String>; list of trusted domain strings for web views, e.g. ['example.com', 'trusted.org']>,
  *      loggingEnabled: <Boolean; set to true to enable debug logging>,
@@ -122,6 +262,8 @@ MobileMessagingCordova.prototype.init = function (config, callback, onInitError)
     var _onInitErrorHandler = onInitError || function () {};
     var _successCallback = callback || function () {};
 
+    var calls = [];
+
     this.configuration = config;
 
     if (messageStorage) {
@@ -151,28 +293,32 @@ MobileMessagingCordova.prototype.init = function (config, callback, onInitError)
             return;
         }
 
-        cordova.exec(messageStorage.start, function () {}, 'MobileMessagingCordova', 'messageStorage_register', ['messageStorage.start']);
-        cordova.exec(messageStorage.stop, function () {}, 'MobileMessagingCordova', 'messageStorage_register', ['messageStorage.stop']);
-        cordova.exec(messageStorage.save, function () {}, 'MobileMessagingCordova', 'messageStorage_register', ['messageStorage.save']);
-        cordova.exec(messageStorage_find, function () {}, 'MobileMessagingCordova', 'messageStorage_register', ['messageStorage.find']);
-        cordova.exec(messageStorage_findAll, function () {}, 'MobileMessagingCordova', 'messageStorage_register', ['messageStorage.findAll']);
+        calls.push({action: 'messageStorage_register', args: ['messageStorage.start'], success: messageStorage.start});
+        calls.push({action: 'messageStorage_register', args: ['messageStorage.stop'], success: messageStorage.stop});
+        calls.push({action: 'messageStorage_register', args: ['messageStorage.save'], success: messageStorage.save});
+        calls.push({action: 'messageStorage_register', args: ['messageStorage.find'], success: messageStorage_find});
+        calls.push({action: 'messageStorage_register', args: ['messageStorage.findAll'], success: messageStorage_findAll});
+        if (isAndroid()) {
+            calls.push({action: 'messageStorage_register', args: ['messageStorage.count'], success: messageStorage_count});
+        }
     }
 
     config.cordovaPluginVersion = cordova.require("cordova/plugin_list").metadata["com-infobip-plugins-mobilemessaging"];
 
     if (config.loggingEnabled === true) {
-        this._subscribePlatformNativeLogs();
+        calls.push(this._platformNativeLogsCall());
     }
 
     if (!config.applicationCode) {
+        this.batch(calls);
         console.error('No application code provided');
         _onInitErrorHandler('No application code provided');
         return;
     }
 
-    cordova.exec(execEventHandlerIfExists, function () {
-    }, 'MobileMessagingCordova', 'registerReceiver', [supportedEvents]);
-    cordova.exec(_successCallback, _onInitErrorHandler, 'MobileMessagingCordova', 'init', [config]);
+    calls.push({action: 'registerReceiver', args: [supportedEvents], success: execEventHandlers});
+    calls.push({action: 'init', args: [config], success: _successCallback, error: _onInitErrorHandler});
+    this.batch(calls);
 };
 
 /**
@@ -181,20 +327,98 @@ MobileMessagingCordova.prototype.init = function (config, callback, onInitError)
  * @private
  */
 MobileMessagingCordova.prototype._subscribePlatformNativeLogs = function() {
-    cordova.exec(
-        function onEventFromNative(event) {
-            // This callback will be called multiple times for each debug event
+    var call = this._platformNativeLogsCall();
+    cordova.exec(call.success, call.error, 'MobileMessagingCordova', call.action, call.args);
+};
+
+/**
+ * Describes platform native logs subscription as a call which can be executed individually or as a part of a batch.
+ * @private
+ */
+MobileMessagingCordova.prototype._platformNativeLogsCall = function() {
+    return {
+        action: 'enablePlatformNativeLogging',
+        args: [],
+        success: function onEventFromNative(event) {
+            // This callback will be called multiple times, each time with a batch of native log messages
             if (event && event.internalEventId === 'internal.platformNativeLogSent') {
-                console.log(event.message);
+                if (Array.isArray(event.messages)) {
+                    event.messages.forEach(function (message) {
+                        console.log(message);
+                    });
+                } else {
+                    console.log(event.message);
+                }
             }
         },
-        function errorHandler(e) {
+        error: function errorHandler(e) {
             console.error('Error in platform native logs subscription: ' + e);
-        },
-        'MobileMessagingCordova',
-        'enablePlatformNativeLogging',
-        []
-    );
+        }
+    };
+};
+
+/**
+ * Executes several plugin actions with a single native bridge call.
+ * On Android calls are dispatched natively in the provided order, each entry receives its results in its own callbacks,
+ * and the batch callback is called once with results of all calls in the same order.
+ * Calls which keep their callbacks (e.g. "registerReceiver", "messageStorage_register") keep receiving results after that.
+ * On other platforms calls are executed one by one and the batch callback is called without results once all calls are issued.
+ *
+ * @name batch
+ * @param {Array<Object>} calls. Calls to execute
+ * [
+ *   {
+ *     action: <String; name of the plugin action, e.g. "getUser">,
+ *     args: <Array; arguments of the action, empty array by default>,
+ *     success: <Function; optional, called with each successful result of the call>,
+ *     error: <Function; optional, called with each error of the call>
+ *   }
+ * ]
+ * @param {Function} callback. Optional, called with array of results in the order of calls:
+ * [
+ *   {
+ *     ok: <Boolean; false if the call failed>,
+ *     result: <Any; result or error of the call, not present for calls which do not produce a result>
+ *   }
+ * ]
+ * @param {Function} errorCallback. Optional, called if the batch itself cannot be executed.
+ */
+MobileMessagingCordova.prototype.batch = function (calls, callback, errorCallback) {
+    var _callback = callback || function () {};
+    var _errorCallback = errorCallback || function () {};
+
+    if (!isAndroid()) {
+        calls.forEach(function (call) {
+            cordova.exec(call.success, call.error, 'MobileMessagingCordova', call.action, call.args || []);
+        });
+        _callback();
+        return;
+    }
+
+    var entries = calls.map(function (call) {
+        return {action: call.action, args: call.args || []};
+    });
+
+    cordova.exec(function (rawMessage) {
+        var message;
+        try {
+            message = JSON.parse(rawMessage);
+        } catch (e) {
+            _errorCallback(e);
+            return;
+        }
+
+        if (Array.isArray(message)) {
+            message.forEach(function (entryResult, index) {
+                if (entryResult.hasOwnProperty('result')) {
+                    deliverBatchResult(calls[index], entryResult.ok, entryResult.result);
+                }
+            });
+            _callback(message);
+        } else {
+            deliverBatchResult(calls[message.index], message.ok, message.result);
+        }
+    }, _errorCallback, 'MobileMessagingCordova', 'batch', [entries]);
 };
 
 /**
@@ -212,6 +436,8 @@ MobileMessagingCordova.prototype._subscribePlatformNativeLogs = function() {
  *   - depersonalized
  *   - inAppChat.unreadMessageCounterUpdated
  *   - inAppChat.availabilityUpdated
+ *   - inbox.updated (Android only, called with the inbox and external user ID when a cached inbox turned out to be outdated,
+ *     see inboxOptions in the configuration)
  *
  * @name register
  * @param {String} eventName
@@ -326,7 +552,7 @@ MobileMessagingCordova.prototype.getUser = function (callback, errorCallback) {
  * @param {Function} errorCallback. Will be called on error.
  */
 MobileMessagingCordova.prototype.fetchInboxMessages = function (token, externalUserId, filterOptions, callback, errorCallback) {
-    cordova.exec(callback, errorCallback, 'MobileMessagingCordova', 'fetchInboxMessages', [token, externalUserId, filterOptions])
+    cordova.exec(binaryPayloadCallback(callback), errorCallback, 'MobileMessagingCordova', 'fetchInboxMessages', [token, externalUserId, filterOptions])
 };
 
 /**
@@ -346,11 +572,74 @@ MobileMessagingCordova.prototype.fetchInboxMessages = function (token, externalU
  * @param {Function} errorCallback. Will be called on error.
  */
 MobileMessagingCordova.prototype.fetchInboxMessagesWithoutToken = function (externalUserId, filterOptions, callback, errorCallback) {
-    cordova.exec(callback, errorCallback, 'MobileMessagingCordova', 'fetchInboxMessagesWithoutToken', [externalUserId, filterOptions])
+    cordova.exec(binaryPayloadCallback(callback), errorCallback, 'MobileMessagingCordova', 'fetchInboxMessagesWithoutToken', [externalUserId, filterOptions])
 };
 
 /**
- * Asynchronously marks inbox messages as seen
+ * Synchronizes a locally persisted copy of the inbox with the server. The first call fetches messages matching filterOptions,
+ * following calls fetch only messages newer than the newest stored one and merge them, so that the callback gets all stored messages,
+ * newest first, with total and unread counts of the last fetch. Messages marked as seen with setInboxMessagesSeen are updated locally.
+ * Inboxes are stored per external user ID and topic filter, at most 1000 newest messages each, and are removed on depersonalization and cleanup.
+ * On iOS it is the same as fetchInboxMessages.
+ *
+ * @name syncInboxMessages
+ * @param {String} token. Access token (JWT), or null to fetch without token as with fetchInboxMessagesWithoutToken.
+ * @param {String} externalUserId. External User ID is meant to be an ID of a user in an external (non-Infobip) service.
+ * @param {Object} filterOptions. Filtering options, same as for fetchInboxMessages, used as is for the first synchronization.
+ * @param {Function} callback. Will be called on success with the inbox, which has an additional field:
+ * {
+ *   newMessages: <Number; number of messages which were not stored before this synchronization>
+ * }
+ * @param {Function} errorCallback. Will be called on error.
+ */
+MobileMessagingCordova.prototype.syncInboxMessages = function (token, externalUserId, filterOptions, callback, errorCallback) {
+    if (!isAndroid()) {
+        if (token) {
+            this.fetchInboxMessages(token, externalUserId, filterOptions, callback, errorCallback);
+        } else {
+            this.fetchInboxMessagesWithoutToken(externalUserId, filterOptions, callback, errorCallback);
+        }
+        return;
+    }
+    cordova.exec(binaryPayloadCallback(callback), errorCallback, 'MobileMessagingCordova', 'syncInboxMessages', [token || null, externalUserId, filterOptions || null]);
+};
+
+/**
+ * Returns a page of inbox messages matching filterOptions (fromDateTime, toDateTime, topic or topics, limit), newest first.
+ * Filters are evaluated on the device against inboxes stored by syncInboxMessages, for the same topic filter or without topic filter,
+ * so switching filters does not need a network request. Only pages which reach before the oldest stored message are fetched from the server.
+ * Stored messages are as recent as the last syncInboxMessages call.
+ * On iOS it is the same as fetchInboxMessages and the cursor is ignored.
+ *
+ * @name queryInboxMessages
+ * @param {String} token. Access token (JWT), or null to fetch without token when the page is not stored locally.
+ * @param {String} externalUserId. External User ID is meant to be an ID of a user in an external (non-Infobip) service.
+ * @param {Object} filterOptions. Filtering options, same as for fetchInboxMessages, limit is the page size.
+ * @param {String} cursor. Value of nextCursor of the previous page, or null for the first page.
+ * @param {Function} callback. Will be called on success with the inbox, which has an additional field:
+ * {
+ *   nextCursor: <String; cursor of the next page, null if there are no more messages>
+ * }
+ * countTotalFiltered and countUnreadFiltered are present if they are known for the stored messages or returned by the server.
+ * @param {Function} errorCallback. Will be called on error.
+ */
+MobileMessagingCordova.prototype.queryInboxMessages = function (token, externalUserId, filterOptions, cursor, callback, errorCallback) {
+    if (!isAndroid()) {
+        if (token) {
+            this.fetchInboxMessages(token, externalUserId, filterOptions, callback, errorCallback);
+        } else {
+            this.fetchInboxMessagesWithoutToken(externalUserId, filterOptions, callback, errorCallback);
+        }
+        return;
+    }
+    cordova.exec(binaryPayloadCallback(callback), errorCallback, 'MobileMessagingCordova', 'queryInboxMessages', [token || null, externalUserId, filterOptions || null, cursor || null]);
+};
+
+/**
+ * Asynchronously marks inbox messages as seen.
+ * On Android calls made within a short window are coalesced into a single request per external user id and the callback
+ * is called with the given message ids once that request completes. The window and batch size can be set with
+ * ANDROID_SEEN_BATCH_DELAY_MS and ANDROID_SEEN_BATCH_SIZE plugin variables, pending ids are sent again after the app is restarted.
  *
  * @name setInboxMessagesSeen
  * @param {String} externalUserId. External User ID is meant to be an ID of a user in an external (non-Infobip) service.
@@ -600,7 +889,8 @@ MobileMessagingCordova.prototype.depersonalizeInstallation = function (pushRegis
 };
 
 /**
- * Mark messages as seen
+ * Mark messages as seen.
+ * On Android calls are coalesced the same way as for setInboxMessagesSeen.
  *
  * @name markMessagesSeen
  * @param {Array<String>} messageIds. Array of identifiers of message to mark as seen.
@@ -623,6 +913,20 @@ MobileMessagingCordova.prototype.showDialogForError = function (errorCode, callb
     cordova.exec(callback, errorCallback, 'MobileMessagingCordova', 'showDialogForError', [errorCode])
 };
 
+/**
+ * Android only. Tells the native mirror of the custom message storage that messages were deleted from it by the application.
+ * Has no effect unless messageStorageOptions.nativeCacheEnabled is set in the configuration.
+ *
+ * @name invalidateMessageStorageCache
+ * @param {Array<String>} messageIds. Identifiers of deleted messages, if omitted the whole mirror is dropped and reloaded from the storage on next use.
+ */
+MobileMessagingCordova.prototype.invalidateMessageStorageCache = function (messageIds) {
+    if (!isAndroid()) {
+        return;
+    }
+    cordova.exec(function () {}, function () {}, 'MobileMessagingCordova', 'messageStorage_invalidateCache', messageIds ? [messageIds] : []);
+};
+
 MobileMessagingCordova.prototype.defaultMessageStorage = function () {
     var config = this.configuration;
     if (!config.defaultMessageStorage) {
@@ -635,7 +939,7 @@ MobileMessagingCordova.prototype.defaultMessageStorage = function () {
         },
 
         findAll: function (callback) {
-            cordova.exec(callback, function () {}, 'MobileMessagingCordova', 'defaultMessageStorage_findAll', []);
+            cordova.exec(binaryPayloadCallback(callback), function () {}, 'MobileMessagingCordova', 'defaultMessageStorage_findAll', []);
         },
 
         delete: function (messageId, callback) {
@@ -644,13 +948,103 @@ MobileMessagingCordova.prototype.defaultMessageStorage = function () {
 
         deleteAll: function (callback) {
             cordova.exec(callback, function () {}, 'MobileMessagingCordova', 'defaultMessageStorage_deleteAll', []);
+        },
+
+        /**
+         * Android only. Deletes several messages in a single transaction, calls callback with number of deleted messages.
+         * Criteria is either an array of message IDs or an object:
+         * {
+         *   messageIds: <Array<String>; optional, IDs of messages to delete>,
+         *   sentBefore: <Number; optional, messages sent before this time (milliseconds since epoch) are deleted>
+         * }
+         */
+        deleteMessages: function (criteria, callback, errorCallback) {
+            cordova.exec(callback, errorCallback || function () {}, 'MobileMessagingCordova', 'defaultMessageStorage_deleteMessages', [criteria]);
+        },
+
+        /**
+         * Android only. Reads one page of messages, newest first, calls callback with an object:
+         * {
+         *   messages: <Array; messages of the page>,
+         *   nextToken: <String; token to pass to get the next page, null if there are no more messages>
+         * }
+         * Pass null token to read the first page. Page size is limited to 500 messages.
+         */
+        findPage: function (pageSize, token, callback, errorCallback) {
+            cordova.exec(binaryPayloadCallback(callback), errorCallback || function () {}, 'MobileMessagingCordova', 'defaultMessageStorage_findPage', [pageSize, token || null]);
+        },
+
+        /**
+         * Android only. Reads all messages, newest first, in chunks of pageSize messages.
+         * onChunk is called for each chunk with an array of messages and a flag which is true for the last chunk.
+         */
+        findAllStream: function (pageSize, onChunk, errorCallback) {
+            cordova.exec(function (result) {
+                var chunk = decodeBinaryPayload(result);
+                onChunk(chunk.messages, chunk.done);
+            }, errorCallback || function () {}, 'MobileMessagingCordova', 'defaultMessageStorage_findAllStream', [pageSize]);
+        },
+
+        /**
+         * Android only. Finds messages matching the query natively, calls callback with an array of messages.
+         * {
+         *   filter: <Object; optional> {
+         *     seen: <Boolean; optional>,
+         *     category: <String or Array<String>; optional>,
+         *     messageIds: <Array<String>; optional>,
+         *     sentAfter: <Number; optional, milliseconds since epoch of the time the message was sent, inclusive>,
+         *     sentBefore: <Number; optional, milliseconds since epoch of the time the message was sent, exclusive>,
+         *     customPayload: <Object; optional, key-value pairs that should be present in message custom payload>
+         *   },
+         *   sort: <Object; optional> {
+         *     field: <String; 'receivedTimestamp' (default, time the message was received on the device), 'seenDate', 'category', 'title' or 'messageId'>,
+         *     order: <String; 'desc' (default) or 'asc'>
+         *   },
+         *   limit: <Number; optional, at most 1000>,
+         *   offset: <Number; optional>,
+         *   fields: <Array<String>; optional, message fields to return, e.g. ['messageId', 'title']>
+         * }
+         */
+        query: function (query, callback, errorCallback) {
+            cordova.exec(callback, errorCallback || function () {}, 'MobileMessagingCordova', 'defaultMessageStorage_query', [query || {}]);
+        },
+
+        /**
+         * Android only. Searches title, body and searchable custom payload values of stored messages,
+         * calls callback with an array of message IDs, or messages with requested fields, best match first.
+         * All words of the text must match, the last word also matches as a prefix.
+         * {
+         *   limit: <Number; optional, 50 by default, at most 500>,
+         *   fields: <Array<String>; optional, message fields to return instead of message IDs, e.g. ['messageId', 'title']>
+         * }
+         */
+        search: function (text, options, callback, errorCallback) {
+            cordova.exec(callback, errorCallback || function () {}, 'MobileMessagingCordova', 'defaultMessageStorage_search', [text, options || {}]);
+        },
+
+        /**
+         * Android only. Applies the retention policy right away instead of waiting for the background compaction,
+         * calls callback with a report: {deletedMessages: <Number>, reclaimedBytes: <Number>}.
+         */
+        compact: function (callback, errorCallback) {
+            cordova.exec(callback, errorCallback || function () {}, 'MobileMessagingCordova', 'defaultMessageStorage_compact', []);
         }
     };
     return defaultMessageStorage;
 };
 
+/**
+ * Android sends findAll and count requests as {requestId} and expects the result with the same request id.
+ * find is requested only by iOS, with the message id, and answered through messageStorage_findResult.
+ */
+function messageStorage_respond(requestId, result) {
+    cordova.exec(function () {
+    }, function () {
+    }, 'MobileMessagingCordova', 'messageStorage_result', [requestId, result === undefined ? null : result]);
+}
+
 function messageStorage_find(messageId) {
-    var messageStorage = this.configuration.messageStorage;
+    var messageStorage = MobileMessaging.configuration.messageStorage;
     messageStorage.find(messageId, function (message) {
         cordova.exec(function () {
         }, function () {
@@ -658,17 +1052,30 @@ function messageStorage_find(messageId) {
     });
 }
 
-function messageStorage_findAll() {
-    var messageStorage = this.configuration.messageStorage;
+function messageStorage_findAll(request) {
+    var messageStorage = MobileMessaging.configuration.messageStorage;
     messageStorage.findAll(function (messages) {
-        cordova.exec(function () {
-        }, function () {
-        }, 'MobileMessagingCordova', 'messageStorage_findAllResult', messages);
+        messageStorage_respond(request.requestId, messages || []);
+    });
+}
+
+function messageStorage_count(request) {
+    var messageStorage = MobileMessaging.configuration.messageStorage;
+    if (typeof messageStorage.count === 'function') {
+        messageStorage.count(function (count) {
+            messageStorage_respond(request.requestId, count || 0);
+        });
+        return;
+    }
+    messageStorage.findAll(function (messages) {
+        messageStorage_respond(request.requestId, messages ? messages.length : 0);
     });
 }
 
 /**
  * Sends an event to the server eventually, handles possible errors and do retries for you.
+ * On Android events are buffered and handed to the SDK in batches, when ANDROID_CUSTOM_EVENT_BATCH_SIZE events are buffered,
+ * ANDROID_CUSTOM_EVENT_BATCH_DELAY_MS after the oldest one, when the app goes to background or when flushEvents is called.
  *
  * @name submitEvent
  * @param {Object} eventData. An object containing event data
@@ -712,6 +1119,23 @@ MobileMessagingCordova.prototype.submitEventImmediately = function (eventData, s
     cordova.exec(successCallback, errorCallback, 'MobileMessagingCordova', 'submitEventImmediately', [eventData]);
 };
 
+/**
+ * Hands events buffered by submitEvent to the SDK right away. Does nothing on iOS, where events are not buffered.
+ *
+ * @name flushEvents
+ * @param {Function} callback. Will be called once buffered events are handed over.
+ * @param {Function} errorCallback. Will be called on error.
+ */
+MobileMessagingCordova.prototype.flushEvents = function (callback, errorCallback) {
+    if (!isAndroid()) {
+        if (callback) {
+            callback();
+        }
+        return;
+    }
+    cordova.exec(callback, errorCallback, 'MobileMessagingCordova', 'flushEvents', []);
+};
+
 /**
  * Shows In-app chat screen.
  * iOS - it's screen with top bar and `x` button on the right corner.
@@ -872,5 +1296,175 @@ MobileMessagingCordova.prototype.setWidgetTheme = function(widgetTheme, errorCal
     cordova.exec(function () {}, errorCallback, 'MobileMessagingCordova', 'setWidgetTheme', [widgetTheme]);
 };
 
+/**
+ * Android only. Returns per-action statistics of native bridge calls collected since start or since the last reset.
+ * Result is an object keyed by action name:
+ * {
+ *   <action name>: {
+ *     calls: <Number; number of calls>,
+ *     errors: <Number; number of calls which failed or reported an error>,
+ *     argumentLength: <Object; histogram of raw JSON arguments length>,
+ *     resultLength: <Object; histogram of encoded result length, per result for streamed actions>,
+ *     dispatchMillis: <Object; histogram of time spent in native handler>,
+ *     resultMillis: <Object; histogram of time until the first result was delivered>
+ *   }
+ * }
+ * Each histogram has the following format:
+ * {
+ *   count: <Number; number of recorded values>,
+ *   sum: <Number; sum of recorded values>,
+ *   max: <Number; maximum recorded value>,
+ *   upperBounds: <Array<Number>; inclusive upper bound of each bucket, -1 for the last unbounded bucket>,
+ *   buckets: <Array<Number>; number of values in each bucket>
+ * }
+ *
+ * @name getActionMetrics
+ * @param {Function} callback. Will be called with metrics object on success.
+ * @param {Function} errorCallback. Will be called on error.
+ */
+MobileMessagingCordova.prototype.getActionMetrics = function (callback, errorCallback) {
+    cordova.exec(callback, errorCallback, 'MobileMessagingCordova', 'getActionMetrics', []);
+};
+
+/**
+ * Android only. Returns statistics of binary payloads decoded since start, see bridgeOptions.binaryPayloads in the configuration.
+ * Together with resultLength in getActionMetrics it allows comparing size and decoding cost of binary and JSON payloads.
+ * Result format:
+ * {
+ *   payloads: <Number; number of decoded payloads>,
+ *   bytes: <Number; total size of decoded payloads>,
+ *   records: <Number; total number of decoded records>,
+ *   decodeMillis: <Number; total time spent decoding>
+ * }
+ *
+ * @name getBinaryPayloadStats
+ * @returns {Object} statistics
+ */
+MobileMessagingCordova.prototype.getBinaryPayloadStats = function () {
+    return {
+        payloads: binaryPayloadStats.payloads,
+        bytes: binaryPayloadStats.bytes,
+        records: binaryPayloadStats.records,
+        decodeMillis: binaryPayloadStats.decodeMillis
+    };
+};
+
+/**
+ * Android only. Resets native bridge call statistics.
+ *
+ * @name resetActionMetrics
+ * @param {Function} callback. Will be called on success.
+ * @param {Function} errorCallback. Will be called on error.
+ */
+MobileMessagingCordova.prototype.resetActionMetrics = function (callback, errorCallback) {
+    cordova.exec(callback, errorCallback, 'MobileMessagingCordova', 'resetActionMetrics', []);
+};
+
+/**
+ * Android only. Returns state of native background lanes used by the plugin.
+ * Number of threads per lane can be configured with IB_ANDROID_NETWORK_THREADS, IB_ANDROID_STORAGE_THREADS
+ * and IB_ANDROID_LIGHT_THREADS preferences in config.xml.
+ * Result format:
+ * {
+ *   <lane name; one of "network", "storage", "light">: {
+ *     threads: <Number; maximum number of threads>,
+ *     active: <Number; number of tasks being executed>,
+ *     queued: <Number; number of tasks waiting in queue>,
+ *     completed: <Number; number of completed tasks>
+ *   }
+ * }
+ *
+ * @name getSchedulerStats
+ * @param {Function} callback. Will be called with lanes state on success.
+ * @param {Function} errorCallback. Will be called on error.
+ */
+MobileMessagingCordova.prototype.getSchedulerStats = function (callback, errorCallback) {
+    cordova.exec(callback, errorCallback, 'MobileMessagingCordova', 'getSchedulerStats', []);
+};
+
+/**
+ * Android only. Returns statistics of the buffer of events sent with submitEvent:
+ * {
+ *   depth: <Number; number of events currently buffered>,
+ *   buffered: <Number; number of events submitted from JS>,
+ *   coalesced: <Number; number of events dropped as identical to a buffered one>,
+ *   submitted: <Number; number of events handed to the SDK>,
+ *   flushes: <Object; number of flushes by reason> {size: <Number>, age: <Number>, background: <Number>, explicit: <Number>},
+ *   batchSize: <Object; histogram of number of events per flush>,
+ *   flushLatencyMillis: <Object; histogram of time the oldest event of a flush spent in the buffer>
+ * }
+ * Histograms have the same format as in getActionMetrics.
+ *
+ * @name getEventBufferStats
+ * @param {Function} callback. Will be called with statistics on success.
+ * @param {Function} errorCallback. Will be called on error.
+ */
+MobileMessagingCordova.prototype.getEventBufferStats = function (callback, errorCallback) {
+    cordova.exec(callback, errorCallback, 'MobileMessagingCordova', 'getEventBufferStats', []);
+};
+
+/**
+ * Android only. Sets which platform native logs are forwarded to the JS console when logging is enabled.
+ * Logs are filtered natively before they are formatted or sent over the bridge. Errors are never rate limited.
+ * Filter format:
+ * {
+ *   minLevel: <String; optional, minimum level, one of "VERBOSE", "DEBUG", "INFO", "WARN", "ERROR">,
+ *   allowTags: <Array<String>; optional, only logs with these tags are forwarded>,
+ *   denyTags: <Array<String>; optional, logs with these tags are not forwarded>,
+ *   ratePerSecond: <Number; optional, maximum number of logs per second forwarded for each tag>,
+ *   burst: <Number; optional, number of logs per tag which can be forwarded at once before rate limit applies>
+ * }
+ *
+ * @name setPlatformNativeLogFilter
+ * @param {Object} filter. Log filter, empty object forwards all logs.
+ * @param {Function} callback. Will be called on success.
+ * @param {Function} errorCallback. Will be called on error.
+ */
+MobileMessagingCordova.prototype.setPlatformNativeLogFilter = function (filter, callback, errorCallback) {
+    cordova.exec(callback, errorCallback, 'MobileMessagingCordova', 'setPlatformNativeLogFilter', [filter || {}]);
+};
+
+/**
+ * Android only. Starts writing platform native logs into rotating files in the application storage,
+ * so they can be exported later with exportPlatformNativeLogs. Replaces forwarding of logs to the JS console.
+ * Log filter set with setPlatformNativeLogFilter is applied to written logs.
+ * Options format:
+ * {
+ *   maxFileSizeKb: <Number; optional, size of a single log file after which it is rotated, 1024 by default>,
+ *   maxFiles: <Number; optional, number of kept log files including the current one, 3 by default>
+ * }
+ *
+ * @name enablePlatformNativeFileLogging
+ * @param {Object} options. Optional file logging options.
+ * @param {Function} callback. Will be called on success.
+ * @param {Function} errorCallback. Will be called on error.
+ */
+MobileMessagingCordova.prototype.enablePlatformNativeFileLogging = function (options, callback, errorCallback) {
+    cordova.exec(callback, errorCallback, 'MobileMessagingCordova', 'enablePlatformNativeFileLogging', [options || {}]);
+};
+
+/**
+ * Android only. Stops writing platform native logs into files, already written files are kept.
+ *
+ * @name disablePlatformNativeFileLogging
+ * @param {Function} callback. Will be called on success.
+ * @param {Function} errorCallback. Will be called on error.
+ */
+MobileMessagingCordova.prototype.disablePlatformNativeFileLogging = function (callback, errorCallback) {
+    cordova.exec(callback, errorCallback, 'MobileMessagingCordova', 'disablePlatformNativeFileLogging', []);
+};
+
+/**
+ * Android only. Copies all platform native log files, oldest first, into a single file.
+ *
+ * @name exportPlatformNativeLogs
+ * @param {String} path. Optional path of the target file, file in the application cache directory is used by default.
+ * @param {Function} callback. Will be called with the absolute path of the exported file on success.
+ * @param {Function} errorCallback. Will be called on error.
+ */
+MobileMessagingCordova.prototype.exportPlatformNativeLogs = function (path, callback, errorCallback) {
+    cordova.exec(callback, errorCallback, 'MobileMessagingCordova', 'exportPlatformNativeLogs', path ? [path] : []);
+};
+
 MobileMessaging = new MobileMessagingCordova();
 module.exports = MobileMessaging;